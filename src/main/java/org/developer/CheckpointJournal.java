@@ -0,0 +1,218 @@
+package org.developer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Durable record of the sheets completed by a resumable conversion run.
+ * Each completed sheet is appended as one line holding the sheet index, the sheet name and the output files
+ * with their sizes, and the line is forced to disk after the output files and their folders. A rerun of the same
+ * input and configurable Excel into the same ZIP file finds the journal in the same work folder and skips the recorded sheets.
+ * <p>
+ * A line cut short by a crash, or a sheet whose files are missing or changed size, is treated as not completed.
+ */
+public class CheckpointJournal {
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final String OUTPUT_FOLDER = "csv";
+
+    private final Path runFolder;
+    private final Path journalPath;
+    private final Map<Integer, String> completedSheets = new HashMap<>();
+
+    private CheckpointJournal(Path runFolder) {
+        this.runFolder = runFolder;
+        this.journalPath = runFolder.resolve(JOURNAL_FILE);
+    }
+
+    /**
+     * Opens the journal of a run, reading the sheets completed by earlier attempts.
+     * The run is keyed by both files and the ZIP destination, so runs of the same files into different ZIP files
+     * keep their work apart; two runs into the same ZIP file at the same time are not supported.
+     *
+     * @param workFolder the folder keeping the runs that have not finished yet
+     * @param configurableExcel the path (or classpath name) of the configurable Excel file
+     * @param inputExcel the path (or classpath name) of the input Excel file
+     * @param zipDestination the ZIP file receiving the CSV files of the run
+     * @param job the job checked while both files are hashed
+     * @return the journal of the run of these two files into the ZIP file
+     * @throws IOException if a file cannot be hashed or the journal cannot be read
+     * @throws java.util.concurrent.CancellationException if the job stopped the conversion, before any folder is created
+     */
+    public static CheckpointJournal open(String workFolder, String configurableExcel, String inputExcel, String zipDestination,
+                                         ConversionJob job) throws IOException {
+        String runKey = runKey(configurableExcel, inputExcel, zipDestination, job);
+        CheckpointJournal journal = new CheckpointJournal(Path.of(workFolder).toAbsolutePath().resolve(runKey));
+        Files.createDirectories(journal.getOutputFolder());
+        if (Files.exists(journal.journalPath)) {
+            journal.load();
+        }
+        return journal;
+    }
+
+    /**
+     * @return the key of the input and configurable Excel, the same for every attempt of the run
+     */
+    public String getRunKey() {
+        return runFolder.getFileName().toString();
+    }
+
+    /**
+     * @return the folder receiving the CSV files of the run, kept between attempts
+     */
+    public Path getOutputFolder() {
+        return runFolder.resolve(OUTPUT_FOLDER);
+    }
+
+    /**
+     * @param sheetIndex the position of the sheet in the configurable Excel
+     * @param sheetName the name of the sheet
+     * @return true if an earlier attempt completed the sheet and its files are still intact
+     */
+    public boolean isCompleted(int sheetIndex, String sheetName) {
+        return sheetName.equals(completedSheets.get(sheetIndex));
+    }
+
+    /**
+     * Records a completed sheet. The output files and the folders holding them are forced to disk before the journal line is.
+     *
+     * @param sheetIndex the position of the sheet in the configurable Excel
+     * @param sheetName the name of the sheet
+     * @param outputFiles the files written for the sheet, inside the output folder
+     * @throws IOException if the files or the journal cannot be forced to disk
+     */
+    public void complete(int sheetIndex, String sheetName, List<Path> outputFiles) throws IOException {
+        StringBuilder line = new StringBuilder().append(sheetIndex).append('\t').append(sheetName);
+        Set<Path> folders = new LinkedHashSet<>();
+        for (Path outputFile : outputFiles) {
+            try (FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            line.append('\t').append(getOutputFolder().relativize(outputFile.toAbsolutePath()))
+                    .append('=').append(Files.size(outputFile));
+            // * The entries of new files and folders live in their parent folders, up to the work folder holding the run folder
+            for (Path folder = outputFile.toAbsolutePath().getParent(); folder != null && folder.startsWith(runFolder.getParent());
+                 folder = folder.getParent()) {
+                folders.add(folder);
+            }
+        }
+        for (Path folder : folders) {
+            forceFolder(folder);
+        }
+        line.append('\n');
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        // * The first line also creates the journal file
+        forceFolder(runFolder);
+        completedSheets.put(sheetIndex, sheetName);
+    }
+
+    /**
+     * Forces the entries of a folder to disk. Windows cannot open a folder as a file channel; there the folder
+     * entries are left to the file system, which the size check made when the journal is read makes up for after a crash.
+     *
+     * @param folder the folder whose entries have changed
+     */
+    private static void forceFolder(Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // * Not supported on this platform
+        }
+    }
+
+    /**
+     * Removes the work of the run once its ZIP has been written.
+     */
+    public void delete() {
+        new ZipDirectory().deleteTempDirectory(runFolder.toString());
+    }
+
+    private void load() throws IOException {
+        String journal = Files.readString(journalPath, StandardCharsets.UTF_8);
+        // * Only lines ended by a newline were fully written, a torn last line is cut off before appending again
+        int end = journal.lastIndexOf('\n');
+        if (end + 1 < journal.length()) {
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                channel.truncate(journal.substring(0, end + 1).getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+        if (end < 0) {
+            return;
+        }
+        for (String line : journal.substring(0, end).split("\n")) {
+            String[] fields = line.split("\t");
+            if (fields.length < 2 || !fields[0].matches("\\d+")) {
+                continue;
+            }
+            if (hasIntactFiles(fields)) {
+                completedSheets.put(Integer.parseInt(fields[0]), fields[1]);
+            } else {
+                completedSheets.remove(Integer.parseInt(fields[0]));
+            }
+        }
+    }
+
+    private boolean hasIntactFiles(String[] fields) throws IOException {
+        for (int fieldIndex = 2; fieldIndex < fields.length; fieldIndex++) {
+            int separator = fields[fieldIndex].lastIndexOf('=');
+            if (separator < 0) {
+                return false;
+            }
+            Path outputFile = getOutputFolder().resolve(fields[fieldIndex].substring(0, separator));
+            if (!Files.isRegularFile(outputFile)
+                    || Files.size(outputFile) != Long.parseLong(fields[fieldIndex].substring(separator + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the SHA-256 of both files and the ZIP destination, naming the work folder of their run
+     */
+    private static String runKey(String configurableExcel, String inputExcel, String zipDestination, ConversionJob job)
+            throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 IS NOT AVAILABLE", e);
+        }
+        ExcelUtils excelUtils = new ExcelUtils();
+        byte[] bytes = new byte[64 * 1024];
+        for (String excelName : List.of(configurableExcel, inputExcel)) {
+            long fileLength = 0;
+            try (InputStream excelStream = excelUtils.openInputStream(excelName)) {
+                int length;
+                while ((length = excelStream.read(bytes)) >= 0) {
+                    job.checkpoint();
+                    digest.update(bytes, 0, length);
+                    fileLength += length;
+                }
+            }
+            // * Ends each file with its length so that moving bytes from one file to the other changes the key
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(fileLength).flip());
+        }
+        digest.update(Path.of(zipDestination).toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,53 @@
+package org.developer;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves a column written in the configurable Excel, either as a header name of the sheet's first row
+ * or as an upper-case column letter (A, B, ..., AA) within the columns of the sheet.
+ */
+public class ColumnReference {
+    private static final Pattern COLUMN_LETTERS = Pattern.compile("[A-Z]{1,3}");
+
+    private ColumnReference() {
+    }
+
+    /**
+     * Resolves a column token. A header name takes precedence over a column letter,
+     * so a header called "ID" is preferred over column ID. A token that is neither a header name nor
+     * the letter of a column of the sheet is an error, so a misspelt header name does not select an empty column.
+     *
+     * @param token the header name or column letter
+     * @param headerColumns the trimmed, lower-cased header names of the first row mapped to their column index
+     * @param columnCount the number of columns of the sheet, the letters beyond it are rejected
+     * @return the zero-based column index
+     * @throws IllegalArgumentException if the token is neither a header name nor a column letter of the sheet
+     */
+    public static int resolve(String token, Map<String, Integer> headerColumns, int columnCount) {
+        String column = token.trim();
+        Integer headerColumn = headerColumns.get(column.toLowerCase());
+        if (headerColumn != null) {
+            return headerColumn;
+        }
+        if (COLUMN_LETTERS.matcher(column).matches()) {
+            int columnIndex = toColumnIndex(column);
+            if (columnIndex < columnCount) {
+                return columnIndex;
+            }
+        }
+        throw new IllegalArgumentException("UNKNOWN COLUMN, NEITHER A HEADER NAME NOR A COLUMN OF THE SHEET: " + column);
+    }
+
+    /**
+     * @param letters the upper-case letters of a column, such as A or AB
+     * @return the zero-based column index
+     */
+    public static int toColumnIndex(String letters) {
+        int columnIndex = 0;
+        for (char character : letters.toCharArray()) {
+            columnIndex = columnIndex * 26 + (character - 'A' + 1);
+        }
+        return columnIndex - 1;
+    }
+}
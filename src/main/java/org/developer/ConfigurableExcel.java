@@ -1,33 +1,29 @@
 package org.developer;
 
 public class ConfigurableExcel {
-    private int startRow;
-    private int endRow;
+    private final int startRow;
+    private final int endRow;
     private final int startColumn;
-    private int endColumn;
+    private final int endColumn;
     private final String sheetName;
     private final String sheetPath;
     private final boolean isTranspose;
     private final boolean isComment;
     private final String sheetRange;
     private final boolean isDeleteAvailable;
+    private final String columnList;
+    private final String rowFilter;
+    private final String csvSplit;
+    private final String deltaKey;
 
     public int getStartRow() {
         return startRow;
     }
 
-    public void setStartRow(int startRow) {
-        this.startRow = startRow;
-    }
-
     public int getEndRow() {
         return endRow;
     }
 
-    public void setEndRow(int endRow) {
-        this.endRow = endRow;
-    }
-
     public int getStartColumn() {
         return startColumn;
     }
@@ -36,10 +32,6 @@ public class ConfigurableExcel {
         return endColumn;
     }
 
-    public void setEndColumn(int endColumn) {
-        this.endColumn = endColumn;
-    }
-
     public String getSheetName() {
         return sheetName;
     }
@@ -64,7 +56,43 @@ public class ConfigurableExcel {
         return isDeleteAvailable;
     }
 
+    /**
+     * @return the explicit columns to extract, header names or column letters separated by ',', may be empty
+     */
+    public String getColumnList() {
+        return columnList;
+    }
+
+    /**
+     * @return the row filter conditions separated by ';', see {@link RowPredicate}, may be empty
+     */
+    public String getRowFilter() {
+        return rowFilter;
+    }
+
+    /**
+     * @return how the CSV output is split into parts, see {@link CsvSplit}, may be empty
+     */
+    public String getCsvSplit() {
+        return csvSplit;
+    }
+
+    /**
+     * @return the key column of the delta output, a header name or column letter of the CSV rows, see {@link DeltaIndex}; may be empty
+     */
+    public String getDeltaKey() {
+        return deltaKey;
+    }
+
     public ConfigurableExcel(int startRow, int endRow, int startColumn, int endColumn, String sheetName, String sheetPath, boolean isTranspose, boolean isComment, String sheetRange, boolean isDeleteAvailable) {
+        this(startRow, endRow, startColumn, endColumn, sheetName, sheetPath, isTranspose, isComment, sheetRange, isDeleteAvailable, null, null, null);
+    }
+
+    public ConfigurableExcel(int startRow, int endRow, int startColumn, int endColumn, String sheetName, String sheetPath, boolean isTranspose, boolean isComment, String sheetRange, boolean isDeleteAvailable, String columnList, String rowFilter, String csvSplit) {
+        this(startRow, endRow, startColumn, endColumn, sheetName, sheetPath, isTranspose, isComment, sheetRange, isDeleteAvailable, columnList, rowFilter, csvSplit, null);
+    }
+
+    public ConfigurableExcel(int startRow, int endRow, int startColumn, int endColumn, String sheetName, String sheetPath, boolean isTranspose, boolean isComment, String sheetRange, boolean isDeleteAvailable, String columnList, String rowFilter, String csvSplit, String deltaKey) {
         this.startRow = startRow;
         this.endRow = endRow;
         this.startColumn = startColumn;
@@ -75,5 +103,9 @@ public class ConfigurableExcel {
         this.isComment = isComment;
         this.sheetRange = sheetRange;
         this.isDeleteAvailable = isDeleteAvailable;
+        this.columnList = columnList;
+        this.rowFilter = rowFilter;
+        this.csvSplit = csvSplit;
+        this.deltaKey = deltaKey;
     }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package org.developer;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle of one conversion run. It reports per-sheet progress and supports cooperative cancellation and
+ * deadlines: the extraction, write and zip loops call {@link #checkpoint()} (directly or through
+ * {@link #rowDone()}), which throws a {@link CancellationException} once the job is cancelled or a deadline
+ * has passed. The converter then removes its temporary directory and any partial ZIP before rethrowing.
+ */
+public class ConversionJob {
+    // * Checking the clock on every row would cost more than the rows themselves
+    private static final int CHECK_INTERVAL = 256;
+    private static final int REPORT_INTERVAL = 10_000;
+
+    private final Duration runTimeout;
+    private final Duration sheetTimeout;
+    private final ConversionProgressListener listener;
+    private volatile boolean isCancelled;
+    private volatile long runDeadline = Long.MAX_VALUE;
+    private volatile long sheetDeadline = Long.MAX_VALUE;
+    private volatile String sheetName;
+    private volatile int sheetIndex = -1;
+    private volatile int sheetCount;
+    private volatile SheetProgress.Phase phase = SheetProgress.Phase.EXTRACTING;
+    private volatile long estimatedRows = -1;
+    private final AtomicLong rowsDone = new AtomicLong();
+    // * Writer threads report too, the listener is called by one thread at a time
+    private final Object reportLock = new Object();
+    private volatile CompletableFuture<Void> completion;
+
+    /**
+     * @param runTimeout the maximum duration of the whole run, null for none
+     * @param sheetTimeout the maximum duration of each sheet (extraction and writing), null for none
+     * @param listener the listener receiving progress, null for none
+     */
+    public ConversionJob(Duration runTimeout, Duration sheetTimeout, ConversionProgressListener listener) {
+        this.runTimeout = runTimeout;
+        this.sheetTimeout = sheetTimeout;
+        this.listener = listener;
+    }
+
+    /**
+     * @return a job without deadlines or listener, used by the blocking conversion methods
+     */
+    public static ConversionJob unbounded() {
+        return new ConversionJob(null, null, null);
+    }
+
+    /**
+     * Requests the cancellation of the run; it stops at the next checkpoint of the converting thread.
+     */
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * @return the progress of the sheet currently converted, null before the first sheet starts
+     */
+    public SheetProgress getProgress() {
+        return sheetName == null ? null : new SheetProgress(sheetName, sheetIndex, sheetCount, phase, rowsDone.get(), estimatedRows);
+    }
+
+    /**
+     * @return true once a run submitted with this job has finished, successfully or not
+     */
+    public boolean isDone() {
+        return completion != null && completion.isDone();
+    }
+
+    /**
+     * Waits for the run submitted with this job.
+     *
+     * @throws Exception the exception that ended the run, a {@link CancellationException} if it was cancelled or timed out
+     */
+    public void await() throws Exception {
+        if (completion == null) {
+            throw new IllegalStateException("CONVERSION JOB WAS NOT SUBMITTED");
+        }
+        try {
+            completion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Throws if the run has to stop.
+     *
+     * @throws CancellationException if the job was cancelled or the run or sheet deadline has passed
+     */
+    public void checkpoint() {
+        if (isCancelled) {
+            throw new CancellationException("CONVERSION CANCELLED" + (sheetName != null ? " IN SHEET: " + sheetName : ""));
+        }
+        long now = System.nanoTime();
+        if (now - runDeadline > 0) {
+            throw new CancellationException("CONVERSION DEADLINE EXCEEDED" + (sheetName != null ? " IN SHEET: " + sheetName : ""));
+        }
+        if (now - sheetDeadline > 0) {
+            throw new CancellationException("SHEET DEADLINE EXCEEDED: " + sheetName);
+        }
+    }
+
+    /**
+     * Wraps a row handler so that every handled row counts as progress and periodically reaches a checkpoint.
+     *
+     * @param handler the handler of an extraction engine
+     * @return the tracking handler
+     */
+    public SheetRowHandler trackRows(SheetRowHandler handler) {
+        return trackRows(handler, -1);
+    }
+
+    /**
+     * Wraps a row handler like {@link #trackRows(SheetRowHandler)}, also taking the estimated rows from the size
+     * the sheet declares to a streaming engine. Such an engine handles every row from the first one.
+     *
+     * @param handler the handler of an extraction engine
+     * @param endRow the last row the engine reads, -1 to read the whole sheet
+     * @return the tracking handler
+     */
+    public SheetRowHandler trackRows(SheetRowHandler handler, int endRow) {
+        return new SheetRowHandler() {
+            @Override
+            public boolean acceptsCell(int rowIndex, int columnIndex) {
+                return handler.acceptsCell(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void handleRow(int rowIndex, RowCells cells) {
+                handler.handleRow(rowIndex, cells);
+                rowDone();
+            }
+
+            @Override
+            public boolean isFinished(int rowIndex) {
+                return handler.isFinished(rowIndex);
+            }
+
+            @Override
+            public void handleDimension(int rowCount, int columnCount) {
+                handler.handleDimension(rowCount, columnCount);
+                estimatedRows = endRow == -1 ? rowCount : Math.min(rowCount, endRow + 1);
+                report();
+            }
+        };
+    }
+
+    void start(CompletableFuture<Void> completion) {
+        this.completion = completion;
+    }
+
+    void startRun() {
+        runDeadline = runTimeout == null ? Long.MAX_VALUE : System.nanoTime() + runTimeout.toNanos();
+        checkpoint();
+    }
+
+    void startSheet(String sheetName, int sheetIndex, int sheetCount) {
+        this.sheetName = sheetName;
+        this.sheetIndex = sheetIndex;
+        this.sheetCount = sheetCount;
+        sheetDeadline = sheetTimeout == null ? Long.MAX_VALUE : System.nanoTime() + sheetTimeout.toNanos();
+        startPhase(SheetProgress.Phase.EXTRACTING, -1);
+    }
+
+    void startPhase(SheetProgress.Phase phase, long estimatedRows) {
+        this.phase = phase;
+        this.estimatedRows = estimatedRows;
+        rowsDone.set(0);
+        report();
+        checkpoint();
+    }
+
+    void completeSheet() {
+        phase = SheetProgress.Phase.COMPLETED;
+        report();
+        sheetDeadline = Long.MAX_VALUE;
+    }
+
+    /**
+     * Counts one extracted or written row; may be called from several writer threads at once.
+     */
+    void rowDone() {
+        long rows = rowsDone.incrementAndGet();
+        if (rows % CHECK_INTERVAL == 0) {
+            checkpoint();
+        }
+        if (rows % REPORT_INTERVAL == 0) {
+            report();
+        }
+    }
+
+    private void report() {
+        if (listener != null && sheetName != null) {
+            synchronized (reportLock) {
+                listener.onProgress(getProgress());
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.developer;
+
+/**
+ * Receives the progress of a {@link ConversionJob}. Called on the converting thread, or on one of the threads
+ * writing the parts of a split CSV; the job makes the calls one at a time, so an implementation sees them in order
+ * and needs no locking of its own, but it must not rely on the calling thread. It should return quickly, since
+ * the writer threads wait for it.
+ */
+public interface ConversionProgressListener {
+    /**
+     * @param progress the progress of the sheet being converted
+     */
+    void onProgress(SheetProgress progress);
+}
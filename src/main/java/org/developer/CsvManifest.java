@@ -0,0 +1,83 @@
+package org.developer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lists the parts of a split CSV output with their data row count, size and SHA-256 checksum,
+ * so a bulk loader can ingest and verify the parts independently.
+ */
+public class CsvManifest {
+    private final List<Part> parts = new ArrayList<>();
+
+    /**
+     * One written part of the CSV output.
+     */
+    public static class Part {
+        private final int partNumber;
+        private final String fileName;
+        private final long rowCount;
+        private final long byteCount;
+        private final String sha256;
+
+        public Part(int partNumber, String fileName, long rowCount, long byteCount, String sha256) {
+            this.partNumber = partNumber;
+            this.fileName = fileName;
+            this.rowCount = rowCount;
+            this.byteCount = byteCount;
+            this.sha256 = sha256;
+        }
+
+        public int getPartNumber() {
+            return partNumber;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+    }
+
+    public synchronized void addPart(Part part) {
+        parts.add(part);
+    }
+
+    public synchronized List<Part> getParts() {
+        return new ArrayList<>(parts);
+    }
+
+    /**
+     * Writes the manifest as a tab-separated file with the columns part, rows, bytes and sha256, ordered by part number.
+     *
+     * @param manifestFile the path of the manifest file
+     * @throws IOException if an error occurs while writing the manifest
+     */
+    public synchronized void write(Path manifestFile) throws IOException {
+        parts.sort(Comparator.comparingInt(Part::getPartNumber));
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            writer.append("part\trows\tbytes\tsha256");
+            for (Part part : parts) {
+                writer.newLine();
+                writer.append(part.getFileName()).append('\t').append(String.valueOf(part.getRowCount()))
+                        .append('\t').append(String.valueOf(part.getByteCount())).append('\t').append(part.getSha256());
+            }
+        }
+    }
+}
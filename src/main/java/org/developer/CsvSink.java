@@ -0,0 +1,204 @@
+package org.developer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * Writes CSV text to a file as UTF-8 without going through a {@code Writer} and a charset encoder.
+ * Characters are encoded straight into a batch of direct buffers (one byte per character for ASCII text),
+ * which are reused for the whole file and handed to the {@link FileChannel} in one gathering write
+ * when the batch is full.
+ * <p>
+ * Unpaired surrogates are written as {@code ?}, as {@code OutputStreamWriter} does.
+ */
+public class CsvSink implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BATCH_BUFFERS = 4;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    // * Direct buffers are costly to allocate and are freed only by the GC, so each thread keeps one batch for its next sink
+    private static final ThreadLocal<ByteBuffer[]> BUFFER_BATCHES = new ThreadLocal<>();
+
+    private final FileChannel channel;
+    private final MessageDigest digest;
+    private final ByteBuffer[] buffers;
+    private int bufferIndex;
+    private ByteBuffer buffer;
+    private long bytesWritten;
+    private boolean isClosed;
+
+    /**
+     * @param path the CSV file, created or truncated
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvSink(Path path) throws IOException {
+        this(path, null);
+    }
+
+    /**
+     * @param path the CSV file, created or truncated
+     * @param digest the digest updated with every written byte, null for none
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvSink(Path path, MessageDigest digest) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.digest = digest;
+        ByteBuffer[] cachedBuffers = BUFFER_BATCHES.get();
+        BUFFER_BATCHES.remove();
+        if (cachedBuffers == null) {
+            cachedBuffers = new ByteBuffer[BATCH_BUFFERS];
+            for (int index = 0; index < BATCH_BUFFERS; index++) {
+                cachedBuffers[index] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            }
+        }
+        this.buffers = cachedBuffers;
+        buffer = buffers[0];
+    }
+
+    /**
+     * Encodes the text as UTF-8.
+     *
+     * @param text the text to write
+     * @throws IOException if a full batch cannot be written
+     */
+    public void write(String text) throws IOException {
+        int length = text.length();
+        int index = 0;
+        while (index < length) {
+            // * ASCII fast path: one byte per character, as long as the current buffer has room
+            int end = Math.min(length, index + buffer.remaining());
+            char character;
+            while (index < end && (character = text.charAt(index)) < 0x80) {
+                buffer.put((byte) character);
+                index++;
+            }
+            if (index == length) {
+                break;
+            }
+            if (buffer.remaining() < 4) {
+                nextBuffer();
+                continue;
+            }
+            character = text.charAt(index++);
+            if (character < 0x80) {
+                buffer.put((byte) character);
+            } else if (character < 0x800) {
+                buffer.put((byte) (0xC0 | (character >> 6)));
+                buffer.put((byte) (0x80 | (character & 0x3F)));
+            } else if (Character.isSurrogate(character)) {
+                if (Character.isHighSurrogate(character) && index < length && Character.isLowSurrogate(text.charAt(index))) {
+                    int codePoint = Character.toCodePoint(character, text.charAt(index++));
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    buffer.put((byte) '?');
+                }
+            } else {
+                buffer.put((byte) (0xE0 | (character >> 12)));
+                buffer.put((byte) (0x80 | ((character >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (character & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Writes a single ASCII character, such as a separator.
+     *
+     * @param character the character, below 0x80
+     * @throws IOException if a full batch cannot be written
+     */
+    public void write(char character) throws IOException {
+        if (!buffer.hasRemaining()) {
+            nextBuffer();
+        }
+        buffer.put((byte) character);
+    }
+
+    /**
+     * Writes the platform line separator, like {@code BufferedWriter.newLine()}.
+     *
+     * @throws IOException if a full batch cannot be written
+     */
+    public void newLine() throws IOException {
+        if (buffer.remaining() < LINE_SEPARATOR.length) {
+            nextBuffer();
+        }
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    /**
+     * @return the number of bytes written so far, including the buffered ones
+     */
+    public long getBytesWritten() {
+        long buffered = 0;
+        for (int index = 0; index <= bufferIndex; index++) {
+            buffered += buffers[index].position();
+        }
+        return bytesWritten + buffered;
+    }
+
+    /**
+     * Writes the buffered bytes and closes the file.
+     * The buffers are then kept for the next sink opened on the same thread.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } finally {
+                for (ByteBuffer batchBuffer : buffers) {
+                    batchBuffer.clear();
+                }
+                BUFFER_BATCHES.set(buffers);
+            }
+        }
+    }
+
+    private void nextBuffer() throws IOException {
+        if (bufferIndex == BATCH_BUFFERS - 1) {
+            flush();
+        } else {
+            buffer = buffers[++bufferIndex];
+        }
+    }
+
+    /**
+     * Hands the filled buffers of the batch to the channel in one gathering write.
+     */
+    private void flush() throws IOException {
+        int count = bufferIndex + 1;
+        long batchBytes = 0;
+        for (int index = 0; index < count; index++) {
+            buffers[index].flip();
+            batchBytes += buffers[index].remaining();
+            if (digest != null) {
+                digest.update(buffers[index].duplicate());
+            }
+        }
+        long batchEnd = bytesWritten + batchBytes;
+        while (bytesWritten < batchEnd) {
+            bytesWritten += channel.write(buffers, 0, count);
+        }
+        for (int index = 0; index < count; index++) {
+            buffers[index].clear();
+        }
+        bufferIndex = 0;
+        buffer = buffers[0];
+    }
+}
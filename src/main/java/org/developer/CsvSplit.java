@@ -0,0 +1,81 @@
+package org.developer;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * How the CSV output of one configuration row is rolled into parts, written in the configurable Excel as
+ * {@code rows:100000} (at most that many data rows per part) or {@code size:512MB} (a part is closed once it
+ * reaches that many bytes, so it goes over by less than one row; units B, KB, MB and GB). Every part repeats the
+ * standardized header.
+ */
+public class CsvSplit {
+    private static final Pattern ROWS = Pattern.compile("(?i)rows\\s*:\\s*(\\d+)");
+    private static final Pattern SIZE = Pattern.compile("(?i)size\\s*:\\s*(\\d+)\\s*(B|KB|MB|GB)?");
+
+    private final boolean isRowCount;
+    private final long limit;
+
+    private CsvSplit(boolean isRowCount, long limit) {
+        this.isRowCount = isRowCount;
+        this.limit = limit;
+    }
+
+    /**
+     * Parses the split column of the configurable Excel.
+     *
+     * @param csvSplit the split setting, may be null or empty
+     * @return the parsed setting, or null if the output is not split
+     * @throws IllegalArgumentException if the setting does not match any supported form
+     */
+    public static CsvSplit parse(String csvSplit) {
+        if (csvSplit == null || csvSplit.trim().isEmpty()) {
+            return null;
+        }
+        Matcher matcher;
+        if ((matcher = ROWS.matcher(csvSplit.trim())).matches()) {
+            return new CsvSplit(true, checkLimit(Long.parseLong(matcher.group(1)), csvSplit));
+        }
+        if ((matcher = SIZE.matcher(csvSplit.trim())).matches()) {
+            long size = Long.parseLong(matcher.group(1));
+            String unit = matcher.group(2) == null ? "B" : matcher.group(2).toUpperCase(Locale.ROOT);
+            switch (unit) {
+                case "KB":
+                    size *= 1024L;
+                    break;
+                case "MB":
+                    size *= 1024L * 1024L;
+                    break;
+                case "GB":
+                    size *= 1024L * 1024L * 1024L;
+                    break;
+                default:
+                    break;
+            }
+            return new CsvSplit(false, checkLimit(size, csvSplit));
+        }
+        throw new IllegalArgumentException("INVALID CSV SPLIT: " + csvSplit);
+    }
+
+    private static long checkLimit(long limit, String csvSplit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("INVALID CSV SPLIT: " + csvSplit);
+        }
+        return limit;
+    }
+
+    /**
+     * @return true if parts are limited by data rows, false if they are limited by bytes
+     */
+    public boolean isRowCount() {
+        return isRowCount;
+    }
+
+    /**
+     * @return the maximum number of data rows of one part, or the size at which a part is closed
+     */
+    public long getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,475 @@
+package org.developer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row-level delta of a CSV file against the previous run.
+ * The index of a CSV file keeps, for every row of the last run, a 64-bit hash of its key, a 64-bit hash of the
+ * whole row and the key itself, sorted by key hash. Comparing the new rows with it leaves only the rows that were
+ * inserted or updated, followed by one row per deleted key in which only the key and the {@code deleted} flag
+ * (the column of {@code addDeleteColumn}) are set. The new index is written next to the current one, under a
+ * name holding the identifier of the run, and only replaces it through {@link #commit} once the run has produced
+ * its ZIP, so a failed run is compared again with the same previous run and runs of the same sheet at the same
+ * time do not overwrite each other's pending index.
+ * <p>
+ * The index file is a header, one fixed-size entry per row (key hash, row hash, offset and length of the key)
+ * and the UTF-8 keys after the entries. It is read with positional reads rather than mapped, so that closing
+ * the index releases the file and {@link #commit} can replace it on every platform. Only the first key hash of
+ * each block of {@value #BLOCK_ENTRIES} entries is kept on the heap: a lookup binary searches these hashes, reads
+ * one block and binary searches it, and a key is only read back, and compared, when its hash matches.
+ */
+public class DeltaIndex implements Closeable {
+    private static final int MAGIC = 0x58434449;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 24;
+    private static final int BLOCK_ENTRIES = 64;
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String DELETED_COLUMN = "deleted";
+
+    private final Path indexFile;
+    private final Path pendingFile;
+    private FileChannel channel;
+    private long fileSize;
+    private int entryCount;
+    private long[] blockKeyHashes = new long[0];
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_ENTRIES * ENTRY_SIZE);
+    private int blockIndex = -1;
+    private int insertedRows;
+    private int updatedRows;
+    private int deletedRows;
+
+    private DeltaIndex(Path indexFile, Path pendingFile) {
+        this.indexFile = indexFile;
+        this.pendingFile = pendingFile;
+    }
+
+    /**
+     * Opens the index of a CSV file, empty if there was no previous run.
+     *
+     * @param indexFolder the folder keeping the indexes between runs
+     * @param sheetPath the path of the CSV file inside the ZIP
+     * @param runId the identifier of the run, naming its pending index
+     * @return the index of the previous run, to be closed before the run commits
+     * @throws IOException if the index cannot be read or is not a delta index
+     */
+    public static DeltaIndex open(Path indexFolder, String sheetPath, String runId) throws IOException {
+        DeltaIndex deltaIndex = new DeltaIndex(getIndexFile(indexFolder, sheetPath), getPendingFile(indexFolder, sheetPath, runId));
+        if (Files.exists(deltaIndex.indexFile)) {
+            try {
+                deltaIndex.read();
+            } catch (IOException | RuntimeException e) {
+                deltaIndex.close();
+                throw e;
+            }
+        }
+        return deltaIndex;
+    }
+
+    /**
+     * Releases the index of the previous run.
+     *
+     * @throws IOException if the index file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Keeps the rows that changed since the previous run and writes the pending index of the new rows.
+     * The number of inserted, updated and deleted rows is then available from the getters.
+     *
+     * @param excelData the rows of the CSV file, the header row first
+     * @param keyColumn the header name, as in the sheet or as written to the CSV header, or the column letter of the key column
+     * @param sheetName the name of the sheet, for the messages
+     * @return the header row followed by the inserted and updated rows, then the deleted rows
+     * @throws IOException if the pending index cannot be written
+     * @throws IllegalArgumentException if the key column does not exist, or a key is empty or repeated
+     */
+    public List<List<String>> computeDelta(List<List<String>> excelData, String keyColumn, String sheetName) throws IOException {
+        List<String> header = new ArrayList<>(excelData.isEmpty() ? List.of() : excelData.get(0));
+        // * Names as written to the CSV header, so a key copied from the CSV resolves and a "Deleted " column is reused
+        Map<String, Integer> headerColumns = new HashMap<>();
+        for (int columnIndex = 0; columnIndex < header.size(); columnIndex++) {
+            if (header.get(columnIndex) != null) {
+                headerColumns.putIfAbsent(Excel2CSV.standardizeHeaderName(header.get(columnIndex)), columnIndex);
+            }
+        }
+        Integer namedKeyIndex = headerColumns.get(Excel2CSV.standardizeHeaderName(keyColumn));
+        int keyIndex = namedKeyIndex != null ? namedKeyIndex : ColumnReference.resolve(keyColumn, headerColumns, header.size());
+        if (keyIndex >= header.size()) {
+            throw new IllegalArgumentException("DELTA KEY COLUMN NOT FOUND: " + keyColumn);
+        }
+        Integer deletedIndex = headerColumns.get(DELETED_COLUMN);
+        if (deletedIndex == null) {
+            deletedIndex = header.size();
+            header.add(DELETED_COLUMN);
+        }
+        int columnCount = header.size();
+
+        int rowCount = excelData.size() - 1;
+        long[] newKeyHashes = new long[Math.max(rowCount, 0)];
+        long[] newRowHashes = new long[newKeyHashes.length];
+        String[] newKeys = new String[newKeyHashes.length];
+        BitSet seenEntries = new BitSet(entryCount);
+        List<List<String>> deltaData = new ArrayList<>();
+        deltaData.add(header);
+        insertedRows = 0;
+        updatedRows = 0;
+        deletedRows = 0;
+        for (int rowIndex = 1; rowIndex < excelData.size(); rowIndex++) {
+            List<String> row = excelData.get(rowIndex);
+            String key = getCell(row, keyIndex).trim();
+            if (key.isEmpty()) {
+                throw new IllegalArgumentException("EMPTY DELTA KEY IN " + sheetName + " AT ROW: " + (rowIndex + 1));
+            }
+            long rowHash = hashRow(row, deletedIndex);
+            newKeyHashes[rowIndex - 1] = hash(FNV_OFFSET, key);
+            newRowHashes[rowIndex - 1] = rowHash;
+            newKeys[rowIndex - 1] = key;
+            int previous = find(newKeyHashes[rowIndex - 1], key);
+            if (previous >= 0) {
+                seenEntries.set(previous);
+                if (getRowHash(previous) == rowHash) {
+                    continue;
+                }
+                updatedRows++;
+            } else {
+                insertedRows++;
+            }
+            deltaData.add(withDeletedFlag(row, columnCount, deletedIndex, "False"));
+        }
+        for (int previous = seenEntries.nextClearBit(0); previous < entryCount; previous = seenEntries.nextClearBit(previous + 1)) {
+            List<String> deletedRow = new ArrayList<>();
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                deletedRow.add(columnIndex == keyIndex ? getKey(previous) : "");
+            }
+            deletedRow.set(deletedIndex, "True");
+            deltaData.add(deletedRow);
+            deletedRows++;
+        }
+        writePending(newKeyHashes, newRowHashes, newKeys, sheetName);
+        return deltaData;
+    }
+
+    /**
+     * @return the rows of the last {@link #computeDelta} whose key was not in the previous run
+     */
+    public int getInsertedRows() {
+        return insertedRows;
+    }
+
+    /**
+     * @return the rows of the last {@link #computeDelta} whose key was in the previous run with other values
+     */
+    public int getUpdatedRows() {
+        return updatedRows;
+    }
+
+    /**
+     * @return the keys of the previous run missing from the last {@link #computeDelta}
+     */
+    public int getDeletedRows() {
+        return deletedRows;
+    }
+
+    /**
+     * @param indexFolder the folder keeping the indexes between runs
+     * @param sheetPath the path of the CSV file inside the ZIP
+     * @param runId the identifier of the run
+     * @return the index written by {@link #computeDelta} in this run, waiting for {@link #commit}
+     */
+    public static Path getPendingFile(Path indexFolder, String sheetPath, String runId) {
+        Path indexFile = getIndexFile(indexFolder, sheetPath);
+        return indexFile.resolveSibling(indexFile.getFileName() + getPendingSuffix(runId));
+    }
+
+    private static String getPendingSuffix(String runId) {
+        return "." + runId + PENDING_SUFFIX;
+    }
+
+    private static Path getIndexFile(Path indexFolder, String sheetPath) {
+        return indexFolder.resolve(sheetPath + ".delta").toAbsolutePath().normalize();
+    }
+
+    /**
+     * Makes the pending indexes of a run the indexes the next run is compared with.
+     *
+     * Every pending index is tried, one that cannot be replaced does not keep the others pending.
+     *
+     * @param pendingFiles the pending indexes of the run; missing files are skipped
+     * @param runId the identifier of the run
+     * @throws IOException if an index cannot be replaced, the failures of the other indexes being suppressed
+     */
+    public static void commit(List<Path> pendingFiles, String runId) throws IOException {
+        String pendingSuffix = getPendingSuffix(runId);
+        IOException commitError = null;
+        for (Path pendingFile : pendingFiles) {
+            if (Files.exists(pendingFile)) {
+                String fileName = pendingFile.getFileName().toString();
+                Path indexFile = pendingFile.resolveSibling(fileName.substring(0, fileName.length() - pendingSuffix.length()));
+                try {
+                    Files.move(pendingFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    if (commitError == null) commitError = e;
+                    else commitError.addSuppressed(e);
+                }
+            }
+        }
+        if (commitError != null) {
+            throw commitError;
+        }
+    }
+
+    private void read() throws IOException {
+        channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("DELTA INDEX TOO LARGE: " + indexFile);
+        }
+        if (fileSize < HEADER_SIZE) {
+            throw new IOException("INVALID DELTA INDEX: " + indexFile);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("INVALID DELTA INDEX: " + indexFile);
+        }
+        entryCount = header.getInt(8);
+        if (entryCount < 0 || HEADER_SIZE + (long) entryCount * ENTRY_SIZE > fileSize) {
+            throw new IOException("TRUNCATED DELTA INDEX: " + indexFile);
+        }
+        blockKeyHashes = new long[(entryCount + BLOCK_ENTRIES - 1) / BLOCK_ENTRIES];
+        for (int blockNumber = 0; blockNumber < blockKeyHashes.length; blockNumber++) {
+            loadBlock(blockNumber);
+            blockKeyHashes[blockNumber] = block.getLong(0);
+        }
+        if (entryCount > 0 && (long) getKeyOffset(entryCount - 1) + getKeyLength(entryCount - 1) > fileSize) {
+            throw new IOException("TRUNCATED DELTA INDEX: " + indexFile);
+        }
+    }
+
+    /**
+     * Reads the entries of a block into the block buffer, unless they are already there.
+     */
+    private void loadBlock(int blockNumber) throws IOException {
+        if (blockNumber == blockIndex) {
+            return;
+        }
+        int blockEntries = Math.min(BLOCK_ENTRIES, entryCount - blockNumber * BLOCK_ENTRIES);
+        block.clear().limit(blockEntries * ENTRY_SIZE);
+        blockIndex = -1;
+        readFully(block, HEADER_SIZE + (long) blockNumber * BLOCK_ENTRIES * ENTRY_SIZE);
+        blockIndex = blockNumber;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("TRUNCATED DELTA INDEX: " + indexFile);
+            }
+        }
+    }
+
+    private void writePending(long[] newKeyHashes, long[] newRowHashes, String[] newKeys, String sheetName) throws IOException {
+        // * Sorts the entries by key hash, then by key, so lookups are binary searches and repeated keys are adjacent
+        Integer[] order = new Integer[newKeys.length];
+        for (int entry = 0; entry < order.length; entry++) order[entry] = entry;
+        Arrays.sort(order, (left, right) -> newKeyHashes[left] != newKeyHashes[right]
+                ? Long.compare(newKeyHashes[left], newKeyHashes[right]) : newKeys[left].compareTo(newKeys[right]));
+        for (int entry = 1; entry < order.length; entry++) {
+            if (newKeys[order[entry]].equals(newKeys[order[entry - 1]])) {
+                throw new IllegalArgumentException("DUPLICATE DELTA KEY IN " + sheetName + ": " + newKeys[order[entry]]);
+            }
+        }
+        Files.createDirectories(pendingFile.getParent());
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(pendingFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(order.length);
+            long keyOffset = HEADER_SIZE + (long) order.length * ENTRY_SIZE;
+            for (Integer entry : order) {
+                int keyLength = utf8Length(newKeys[entry]);
+                if (keyOffset + keyLength > Integer.MAX_VALUE) {
+                    throw new IOException("DELTA INDEX TOO LARGE: " + pendingFile);
+                }
+                output.writeLong(newKeyHashes[entry]);
+                output.writeLong(newRowHashes[entry]);
+                output.writeInt((int) keyOffset);
+                output.writeInt(keyLength);
+                keyOffset += keyLength;
+            }
+            for (Integer entry : order) {
+                output.write(newKeys[entry].getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * @return the entry of the previous run with this key, -1 if the key is new
+     */
+    private int find(long keyHash, String key) throws IOException {
+        // * Last block starting below the key hash, the first entry with the hash is in it or starts the next block
+        int lowBlock = 0;
+        int highBlock = blockKeyHashes.length;
+        while (lowBlock < highBlock) {
+            int middle = (lowBlock + highBlock) >>> 1;
+            if (blockKeyHashes[middle] < keyHash) {
+                lowBlock = middle + 1;
+            } else {
+                highBlock = middle;
+            }
+        }
+        int blockNumber = Math.max(lowBlock - 1, 0);
+        // * Lower bound of the key hash within the block, the entries with the same hash are adjacent
+        int low = blockNumber * BLOCK_ENTRIES;
+        int high = Math.min(low + BLOCK_ENTRIES, entryCount);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getKeyHash(middle) < keyHash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        byte[] keyBytes = null;
+        for (int entry = low; entry < entryCount && getKeyHash(entry) == keyHash; entry++) {
+            if (keyBytes == null) {
+                keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            }
+            if (isKeyEqual(entry, keyBytes)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the position of the entry within the block buffer, after reading its block
+     */
+    private int getEntryPosition(int entry) throws IOException {
+        loadBlock(entry / BLOCK_ENTRIES);
+        return (entry % BLOCK_ENTRIES) * ENTRY_SIZE;
+    }
+
+    private long getKeyHash(int entry) throws IOException {
+        return block.getLong(getEntryPosition(entry));
+    }
+
+    private long getRowHash(int entry) throws IOException {
+        return block.getLong(getEntryPosition(entry) + 8);
+    }
+
+    private int getKeyOffset(int entry) throws IOException {
+        return block.getInt(getEntryPosition(entry) + 16);
+    }
+
+    private int getKeyLength(int entry) throws IOException {
+        return block.getInt(getEntryPosition(entry) + 20);
+    }
+
+    private boolean isKeyEqual(int entry, byte[] keyBytes) throws IOException {
+        return getKeyLength(entry) == keyBytes.length && Arrays.equals(readKey(entry), keyBytes);
+    }
+
+    private String getKey(int entry) throws IOException {
+        return new String(readKey(entry), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readKey(int entry) throws IOException {
+        long keyOffset = getKeyOffset(entry);
+        ByteBuffer keyBytes = ByteBuffer.allocate(getKeyLength(entry));
+        readFully(keyBytes, keyOffset);
+        return keyBytes.array();
+    }
+
+    /**
+     * Hashes every cell of the row except the deleted flag, each preceded by its length so that moving
+     * text from one cell to the next changes the hash. Trailing empty cells are left out.
+     */
+    private static long hashRow(List<String> row, int deletedIndex) {
+        int lastColumn = row.size() - 1;
+        while (lastColumn >= 0 && (lastColumn == deletedIndex || getCell(row, lastColumn).isEmpty())) lastColumn--;
+        long rowHash = FNV_OFFSET;
+        for (int columnIndex = 0; columnIndex <= lastColumn; columnIndex++) {
+            if (columnIndex == deletedIndex) {
+                continue;
+            }
+            String cell = getCell(row, columnIndex);
+            rowHash = hash(mix(rowHash, cell.length()), cell);
+        }
+        return rowHash;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 characters of the text.
+     */
+    private static long hash(long hash, String text) {
+        for (int index = 0; index < text.length(); index++) {
+            hash = mix(hash, text.charAt(index));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    /**
+     * @return the number of bytes of {@code text.getBytes(UTF_8)}, an unpaired surrogate being replaced by one byte
+     */
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            if (character < 0x80) {
+                length++;
+            } else if (character < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(character) && index + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(index + 1))) {
+                length += 4;
+                index++;
+            } else if (Character.isSurrogate(character)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static String getCell(List<String> row, int columnIndex) {
+        String cell = columnIndex < row.size() ? row.get(columnIndex) : null;
+        return cell != null ? cell : "";
+    }
+
+    private static List<String> withDeletedFlag(List<String> row, int columnCount, int deletedIndex, String flag) {
+        List<String> flaggedRow = new ArrayList<>(row);
+        while (flaggedRow.size() < columnCount) flaggedRow.add("");
+        flaggedRow.set(deletedIndex, flag);
+        return flaggedRow;
+    }
+}
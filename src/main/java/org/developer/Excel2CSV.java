@@ -1,55 +1,308 @@
 package org.developer;
 
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.SAXException;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 
+/**
+ * Converts the sheets of an Excel file to CSV files described by a configurable Excel file.
+ * A converter holds no state of its own between calls: each row of the configurable Excel is resolved into an
+ * immutable {@link SheetExecutionPlan} before its sheet is read, so one instance can run several conversions
+ * at the same time as long as each of them writes its own ZIP destination.
+ */
 public class Excel2CSV {
+    private final ExtractionEngine extractionEngine;
+    private static final Pattern SPECIAL_CHARACTERS = Pattern.compile("[,\\n'/\\\\\"]");
+    private static final String DELTA_INDEX_FOLDER = "delta-index";
+    private static final String DEFAULT_ZIP_DESTINATION = "D://CSV.zip";
+    // * Columns B to K of the configurable Excel, read by position so that a blank optional cell keeps the later columns in place
+    private static final String CONFIGURATION_COLUMNS = "B, C, D, E, F, G, H, I, J, K";
+
+    private final ExcelUtils excelUtils = new ExcelUtils();
+    private final Path deltaIndexFolder;
+
+    /**
+     * Creates a converter choosing the extraction engine of each XLSX sheet from the estimated cost of the workbook.
+     */
+    public Excel2CSV() {
+        this(null);
+    }
+
+    /**
+     * Creates a converter extracting every XLSX sheet with the same engine.
+     * Delta indexes are kept in the {@code delta-index} folder of the working directory.
+     *
+     * @param extractionEngine the engine of every XLSX sheet, null to choose it from the estimated cost of the workbook
+     */
+    public Excel2CSV(ExtractionEngine extractionEngine) {
+        this(extractionEngine, Paths.get(DELTA_INDEX_FOLDER));
+    }
+
+    /**
+     * Creates a converter keeping the delta indexes of the sheets configured with a delta key in the given folder.
+     *
+     * @param extractionEngine the engine of every XLSX sheet, null to choose it from the estimated cost of the workbook
+     * @param deltaIndexFolder the folder keeping the index of each delta CSV between runs
+     */
+    public Excel2CSV(ExtractionEngine extractionEngine, Path deltaIndexFolder) {
+        this.extractionEngine = extractionEngine;
+        this.deltaIndexFolder = deltaIndexFolder;
+    }
+
     /**
      * Converts specified sheets and ranges from an Excel file to CSV format based on a configurable Excel file.
-     * @param configurableExcel the name to the configurable Excel file containing the conversion parameters
-     * @param inputExcel the name to the input Excel file to be converted
+     * The CSV files are zipped to {@code D://CSV.zip}.
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
      * @throws Exception if an error occurs during the conversion process
      */
     public void excel2CSV(String configurableExcel, String inputExcel) throws Exception {
-        ExcelUtils excelUtils = new ExcelUtils();
+        excel2CSV(configurableExcel, inputExcel, DEFAULT_ZIP_DESTINATION);
+    }
+
+    /**
+     * Converts the Excel file like {@link #excel2CSV(String, String)} into the given ZIP file.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param zipDestination the ZIP file receiving the CSV files, replaced once the run has succeeded
+     * @throws Exception if an error occurs during the conversion process
+     */
+    public void excel2CSV(String configurableExcel, String inputExcel, String zipDestination) throws Exception {
+        excel2CSV(configurableExcel, inputExcel, zipDestination, ConversionJob.unbounded());
+    }
+
+    /**
+     * Starts the conversion of {@link #excel2CSV(String, String)} on its own thread and returns at once.
+     * The returned job reports the progress of each sheet, can be cancelled, and ends the run when one of
+     * its deadlines passes.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param runTimeout the maximum duration of the whole conversion, null for none
+     * @param sheetTimeout the maximum duration of the extraction and writing of each sheet, null for none
+     * @param listener the listener receiving the progress of each sheet, null for none
+     * @return the handle of the running conversion
+     */
+    public ConversionJob submitExcel2CSV(String configurableExcel, String inputExcel, Duration runTimeout, Duration sheetTimeout,
+                                         ConversionProgressListener listener) {
+        return submitExcel2CSV(configurableExcel, inputExcel, DEFAULT_ZIP_DESTINATION, runTimeout, sheetTimeout, listener);
+    }
+
+    /**
+     * Starts the conversion of {@link #excel2CSV(String, String, String)} on its own thread and returns at once,
+     * see {@link #submitExcel2CSV(String, String, Duration, Duration, ConversionProgressListener)}.
+     * Conversions running at the same time need distinct ZIP destinations.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param zipDestination the ZIP file receiving the CSV files, replaced once the run has succeeded
+     * @param runTimeout the maximum duration of the whole conversion, null for none
+     * @param sheetTimeout the maximum duration of the extraction and writing of each sheet, null for none
+     * @param listener the listener receiving the progress of each sheet, null for none
+     * @return the handle of the running conversion
+     */
+    public ConversionJob submitExcel2CSV(String configurableExcel, String inputExcel, String zipDestination, Duration runTimeout,
+                                         Duration sheetTimeout, ConversionProgressListener listener) {
+        ConversionJob job = new ConversionJob(runTimeout, sheetTimeout, listener);
+        job.start(CompletableFuture.runAsync(() -> {
+            try {
+                excel2CSV(configurableExcel, inputExcel, zipDestination, job);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, runnable -> new Thread(runnable, "excel2csv-" + new File(inputExcel).getName()).start()));
+        return job;
+    }
+
+    /**
+     * Converts the Excel file like {@link #excel2CSV(String, String)} under the control of a job.
+     * When the run fails, is cancelled or times out, the temporary directory and the partial ZIP are removed.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param job the job reporting the progress and deciding when the conversion has to stop
+     * @throws Exception if an error occurs during the conversion process, a {@link java.util.concurrent.CancellationException} if the job stopped it
+     */
+    public void excel2CSV(String configurableExcel, String inputExcel, ConversionJob job) throws Exception {
+        excel2CSV(configurableExcel, inputExcel, DEFAULT_ZIP_DESTINATION, job);
+    }
+
+    /**
+     * Converts the Excel file like {@link #excel2CSV(String, String, String)} under the control of a job.
+     * The ZIP is written next to its destination under a name of its own and replaces the destination only
+     * once the run has succeeded; when the run fails, is cancelled or times out, the temporary directory and
+     * the partial ZIP are removed and the destination is left as it was.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param zipDestination the ZIP file receiving the CSV files
+     * @param job the job reporting the progress and deciding when the conversion has to stop
+     * @throws Exception if an error occurs during the conversion process, a {@link java.util.concurrent.CancellationException} if the job stopped it
+     */
+    public void excel2CSV(String configurableExcel, String inputExcel, String zipDestination, ConversionJob job) throws Exception {
         ZipDirectory zipDirectory = new ZipDirectory();
         String tempFolder = zipDirectory.createTempDirectory("tempCSV");
-        String zipDestinationFolder = "D://CSV.zip";
-        ConfigurableExcel excelQueryParameters = new ConfigurableExcel(0, -1, 1, -1, null, null, false, true, null, false);
-        InputStream configurableExcelPath = excelUtils.getResourceAsStream(configurableExcel);
-        List<List<String>> excelConfigurationList = queryExcelData(configurableExcelPath, excelQueryParameters);
-        List<ConfigurableExcel> queryConfigList = fillSheetParameter(excelConfigurationList);
-        validateSheetAndPath(queryConfigList, excelConfigurationList,inputExcel);
-        for (ConfigurableExcel parameters : queryConfigList) {
-            List<List<String>> excelData;
-            InputStream inputExcelPath = excelUtils.getResourceAsStream(inputExcel);
-            if (parameters.getSheetRange().isEmpty() || parameters.getSheetRange() == null) {
-                excelData = queryExcelData(inputExcelPath, parameters);
-            } else {
-                excelData = specificRange(inputExcel, parameters);
-            }
-            if (parameters.isDeleteAvailable()) {
-                excelData.add(addDeleteColumn(excelData));
+        try {
+            convert(configurableExcel, inputExcel, tempFolder, zipDestination, UUID.randomUUID().toString(), null, job);
+        } finally {
+            zipDirectory.deleteTempDirectory(tempFolder);
+        }
+    }
+
+    /**
+     * Converts the Excel file like {@link #excel2CSV(String, String)}, keeping the CSV files and a checkpoint
+     * journal of the completed sheets in a work folder. When a run is interrupted (crash, kill, cancellation
+     * or error), running it again with the same input, configurable Excel, work folder and ZIP destination skips the sheets
+     * already completed and produces the same ZIP. The work of the run is removed once the ZIP is written.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param workFolder the folder keeping the work of unfinished runs, one sub folder per input, configurable Excel and ZIP destination
+     * @throws Exception if an error occurs during the conversion process
+     */
+    public void excel2CSVResumable(String configurableExcel, String inputExcel, String workFolder) throws Exception {
+        excel2CSVResumable(configurableExcel, inputExcel, workFolder, DEFAULT_ZIP_DESTINATION, ConversionJob.unbounded());
+    }
+
+    /**
+     * Resumable variant of {@link #excel2CSV(String, String, ConversionJob)}, see {@link #excel2CSVResumable(String, String, String)}.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param workFolder the folder keeping the work of unfinished runs, one sub folder per input, configurable Excel and ZIP destination
+     * @param job the job reporting the progress and deciding when the conversion has to stop
+     * @throws Exception if an error occurs during the conversion process, a {@link java.util.concurrent.CancellationException} if the job stopped it
+     */
+    public void excel2CSVResumable(String configurableExcel, String inputExcel, String workFolder, ConversionJob job) throws Exception {
+        excel2CSVResumable(configurableExcel, inputExcel, workFolder, DEFAULT_ZIP_DESTINATION, job);
+    }
+
+    /**
+     * Resumable variant of {@link #excel2CSV(String, String, String, ConversionJob)}, see {@link #excel2CSVResumable(String, String, String)}.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param workFolder the folder keeping the work of unfinished runs, one sub folder per input, configurable Excel and ZIP destination
+     * @param zipDestination the ZIP file receiving the CSV files, replaced once the run has succeeded
+     * @param job the job reporting the progress and deciding when the conversion has to stop
+     * @throws Exception if an error occurs during the conversion process, a {@link java.util.concurrent.CancellationException} if the job stopped it
+     */
+    public void excel2CSVResumable(String configurableExcel, String inputExcel, String workFolder, String zipDestination,
+                                   ConversionJob job) throws Exception {
+        CheckpointJournal journal = CheckpointJournal.open(workFolder, configurableExcel, inputExcel, zipDestination, job);
+        // * The run key of the journal also names the pending delta indexes, so a resumed run finds those of its earlier attempts
+        convert(configurableExcel, inputExcel, journal.getOutputFolder().toString(), zipDestination, journal.getRunKey(), journal, job);
+        journal.delete();
+    }
+
+    /**
+     * Converts every configured sheet into the output folder and zips the folder.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @param outputFolder the folder receiving the CSV files
+     * @param zipDestination the ZIP file receiving the CSV files
+     * @param runId the identifier of the run, naming its partial ZIP and its pending delta indexes
+     * @param journal the journal of a resumable run, null to convert every sheet
+     * @param job the job reporting the progress and deciding when the conversion has to stop
+     * @throws Exception if an error occurs during the conversion process
+     */
+    private void convert(String configurableExcel, String inputExcel, String outputFolder, String zipDestination, String runId,
+                         CheckpointJournal journal, ConversionJob job) throws Exception {
+        ZipDirectory zipDirectory = new ZipDirectory();
+        String partialZip = zipDestination + "." + runId + ".part";
+        List<Path> pendingDeltaIndexes = new ArrayList<>();
+        try {
+            job.startRun();
+            List<List<String>> excelConfigurationList = queryConfiguration(configurableExcel, job);
+            List<ConfigurableExcel> queryConfigList = fillSheetParameter(excelConfigurationList);
+            validateSheetAndPath(queryConfigList, excelConfigurationList, inputExcel, job);
+            WorkbookCostEstimate costEstimate = estimateCost(inputExcel, job);
+            for (int sheetIndex = 0; sheetIndex < queryConfigList.size(); sheetIndex++) {
+                ConfigurableExcel parameters = queryConfigList.get(sheetIndex);
+                job.startSheet(parameters.getSheetName(), sheetIndex, queryConfigList.size());
+                if (parameters.getDeltaKey() != null && !parameters.getDeltaKey().trim().isEmpty()) {
+                    // * Also covers a sheet completed by an earlier attempt, whose index is still pending
+                    pendingDeltaIndexes.add(DeltaIndex.getPendingFile(deltaIndexFolder, parameters.getSheetPath(), runId));
+                }
+                if (journal != null && journal.isCompleted(sheetIndex, parameters.getSheetName())) {
+                    job.completeSheet();
+                    continue;
+                }
+                SheetExecutionPlan plan;
+                try {
+                    plan = createPlan(parameters, costEstimate);
+                } catch (IllegalArgumentException e) {
+                    throw new Exception(parameters.getSheetName() + " " + e.getMessage());
+                }
+                List<List<String>> excelData = queryExcelData(inputExcel, plan, job);
+                // * Without transposing, the delete row would be compared as a data row; the deleted column of the delta stands in for it
+                if (parameters.isDeleteAvailable() && (parameters.isTranspose() || plan.getDeltaKey() == null)) {
+                    excelData.add(addDeleteColumn(excelData));
+                }
+                if (parameters.isTranspose()) {
+                    excelData = transposeData(excelData);
+                }
+                if (plan.getDeltaKey() != null) {
+                    // * Closed at once, so the index file can be replaced when the run commits
+                    try (DeltaIndex deltaIndex = DeltaIndex.open(deltaIndexFolder, parameters.getSheetPath(), runId)) {
+                        excelData = deltaIndex.computeDelta(excelData, plan.getDeltaKey(), parameters.getSheetName());
+                    } catch (IllegalArgumentException e) {
+                        throw new Exception(parameters.getSheetName() + " " + e.getMessage());
+                    }
+                }
+                String csvFilePath = createDirectory(outputFolder, parameters);
+                List<Path> outputFiles = writeCSV(plan, excelData, csvFilePath, job);
+                if (journal != null) {
+                    journal.complete(sheetIndex, parameters.getSheetName(), outputFiles);
+                }
+                job.completeSheet();
             }
-            if (parameters.isTranspose()) {
-                excelData = transposeData(excelData);
+            zipDirectory.zipFolder(outputFolder, partialZip, job);
+            Files.move(Paths.get(partialZip), Paths.get(zipDestination), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            zipDirectory.deleteTempDirectory(partialZip);
+            if (journal == null) {
+                // * Nothing will resume this run, its pending delta indexes would never be committed
+                for (Path pendingDeltaIndex : pendingDeltaIndexes) {
+                    try {
+                        Files.deleteIfExists(pendingDeltaIndex);
+                    } catch (IOException deleteError) {
+                        e.addSuppressed(deleteError);
+                    }
+                }
             }
-            String csvFilePath = createDirectory(tempFolder, parameters);
-            writeCSV(parameters, excelData, csvFilePath);
-            inputExcelPath.close();
+            throw e;
         }
-        zipDirectory.zipFolder(tempFolder, zipDestinationFolder);
-        zipDirectory.deleteTempDirectory(tempFolder);
-        configurableExcelPath.close();
+        // * The ZIP is published with the delta of these indexes, so they are never discarded from here on: an index
+        // * that cannot be committed stays pending and the next run sends the same changes again instead of losing them
+        DeltaIndex.commit(pendingDeltaIndexes, runId);
     }
     /**
      * Validates the sheet names and paths in the configuration.
@@ -57,10 +310,11 @@ public class Excel2CSV {
      *
      * @param queryConfigList    The list of configurable Excel parameters.
      * @param configExcelList    The configuration data from the Excel file.
+     * @param job                The job checked while the sheets are scanned.
      * @throws Exception If any validation fails.
      */
-    private void validateSheetAndPath(List<ConfigurableExcel> queryConfigList, List<List<String>> configExcelList, String inputExcel) throws Exception {
-        ExcelUtils excelUtils = new ExcelUtils();
+    private void validateSheetAndPath(List<ConfigurableExcel> queryConfigList, List<List<String>> configExcelList, String inputExcel,
+                                      ConversionJob job) throws Exception {
         for (List<String> rowData : configExcelList) {
             if (rowData.stream().allMatch(cellData -> cellData.trim().isEmpty())) {
                 throw new Exception("CONFIGURABLE EXCEL SHEET CONTAINS BLANK ROWS");
@@ -78,55 +332,38 @@ public class Excel2CSV {
             if (isSheetNameEmpty) {
                 throw new Exception("CSD SHEET AND CSV DIRECTORY PATH DOES NOT EXIST");
             }
+            try {
+                RowPredicate.parse(parameters.getRowFilter());
+                CsvSplit.parse(parameters.getCsvSplit());
+            } catch (IllegalArgumentException e) {
+                throw new Exception(parameters.getSheetName() + " " + e.getMessage());
+            }
         }
         // * Maps to keep track of blank rows and errors
         Map<String, List<Integer>> multipleBlankRowsMap = new HashMap<>();
         Map<String, Integer> singleBlankRowMap = new HashMap<>();
         List<String> blankRowWhitespaceErrors = new ArrayList<>();
-        try (InputStream inputExcelPath = excelUtils.getResourceAsStream(inputExcel);
-             Workbook workbook = new XSSFWorkbook(inputExcelPath)) {
-            for (ConfigurableExcel parameters : queryConfigList) {
-                String sheetName = parameters.getSheetName();
-                Sheet sheet = workbook.getSheet(sheetName);
-                if (sheet == null) {
-                    throw new Exception("SHEET DOES NOT EXIST: " + sheetName);
+        if (excelUtils.isLegacyExcel(inputExcel)) {
+            try (POIFSFileSystem fileSystem = excelUtils.openFileSystem(inputExcel)) {
+                for (ConfigurableExcel parameters : queryConfigList) {
+                    new HSSFEventSheetReader().readSheet(fileSystem, parameters.getSheetName(), createBlankRowValidator(parameters.getSheetName(),
+                            job, multipleBlankRowsMap, singleBlankRowMap, blankRowWhitespaceErrors));
                 }
-                for (int rowIndex = 0; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                    Row row = sheet.getRow(rowIndex);
-                    if (row != null) {
-                        boolean isRowBlank = true;
-                        boolean hasWhitespaceInBlankCell = false;
-                        StringBuilder rowWhitespaceErrors = new StringBuilder();
-                        for (int cellIndex = 0; cellIndex < row.getLastCellNum(); cellIndex++) {
-                            Cell cell = row.getCell(cellIndex);
-                            if (cell != null) {
-                                String cellValue = cell.toString();
-                                if (cellValue.trim().isEmpty() && !cellValue.isEmpty()) {
-                                    hasWhitespaceInBlankCell = true;
-                                    rowWhitespaceErrors.append(" and Column: ").append(cellIndex + 1).append(" ");
-                                }
-                                if (cell.getCellType() != CellType.BLANK && !cellValue.trim().isEmpty()) {
-                                    isRowBlank = false;
-                                }
-                            }
-                        }
-                        if (isRowBlank) {
-                            if (multipleBlankRowsMap.containsKey(sheetName)) {
-                                multipleBlankRowsMap.get(sheetName).add(rowIndex + 1);
-                            } else if (singleBlankRowMap.containsKey(sheetName)) {
-                                List<Integer> rowList = new ArrayList<>();
-                                rowList.add(singleBlankRowMap.remove(sheetName));
-                                rowList.add(rowIndex + 1);
-                                multipleBlankRowsMap.put(sheetName, rowList);
-                            } else {
-                                singleBlankRowMap.put(sheetName, rowIndex + 1);
-                            }
-                            if (hasWhitespaceInBlankCell) {
-                                blankRowWhitespaceErrors.add("Whitespace in New blank Row in Sheet: " + sheetName + " at Row: " + (rowIndex + 1) + rowWhitespaceErrors);
-                            }
-                        }
-                    }
+            }
+        } else {
+            // * Streamed like the XLS workbook, so validating a sheet never loads the workbook
+            OPCPackage inputExcelPackage = excelUtils.openPackage(inputExcel);
+            MappedSharedStringsTable sharedStrings = null;
+            try {
+                sharedStrings = StreamingSheetReader.openSharedStrings(inputExcelPackage, job);
+                for (ConfigurableExcel parameters : queryConfigList) {
+                    new StreamingSheetReader().readSheet(inputExcelPackage, sharedStrings, parameters.getSheetName(),
+                            createBlankRowValidator(parameters.getSheetName(), job, multipleBlankRowsMap, singleBlankRowMap,
+                                    blankRowWhitespaceErrors));
                 }
+            } finally {
+                if (sharedStrings != null) sharedStrings.close();
+                inputExcelPackage.revert();
             }
         }
         // * Build error messages
@@ -163,6 +400,140 @@ public class Excel2CSV {
         }
     }
 
+    /**
+     * Creates the handler looking for blank rows in a sheet, given to the streaming engines.
+     * A row is blank when none of its cells holds more than whitespace; the cells of a row are only
+     * formatted until one of them is not blank.
+     *
+     * @param sheetName the name of the validated sheet
+     * @param job the job checked for every row
+     * @param multipleBlankRowsMap the sheets with several blank rows
+     * @param singleBlankRowMap the sheets with a single blank row so far
+     * @param blankRowWhitespaceErrors the whitespace errors found in blank rows
+     * @return the handler reading every row of the sheet
+     */
+    private SheetRowHandler createBlankRowValidator(String sheetName, ConversionJob job, Map<String, List<Integer>> multipleBlankRowsMap,
+                                                    Map<String, Integer> singleBlankRowMap, List<String> blankRowWhitespaceErrors) {
+        return new SheetRowHandler() {
+            @Override
+            public boolean acceptsCell(int rowIndex, int columnIndex) {
+                return true;
+            }
+
+            @Override
+            public void handleRow(int rowIndex, RowCells cells) {
+                job.checkpoint();
+                boolean hasWhitespaceInBlankCell = false;
+                StringBuilder rowWhitespaceErrors = new StringBuilder();
+                for (int cellIndex = 0; cellIndex < cells.getLastColumn(); cellIndex++) {
+                    if (cells.hasCell(cellIndex)) {
+                        String cellValue = cells.getValue(cellIndex);
+                        if (!cellValue.trim().isEmpty()) {
+                            return;
+                        }
+                        if (!cellValue.isEmpty()) {
+                            hasWhitespaceInBlankCell = true;
+                            rowWhitespaceErrors.append(" and Column: ").append(cellIndex + 1).append(" ");
+                        }
+                    }
+                }
+                recordBlankRow(sheetName, rowIndex, hasWhitespaceInBlankCell, rowWhitespaceErrors,
+                        multipleBlankRowsMap, singleBlankRowMap, blankRowWhitespaceErrors);
+            }
+
+            @Override
+            public boolean isFinished(int rowIndex) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Records a blank row found while validating a sheet.
+     *
+     * @param sheetName the name of the validated sheet
+     * @param rowIndex the zero-based index of the blank row
+     * @param hasWhitespaceInBlankCell true if a cell of the row only contains whitespace
+     * @param rowWhitespaceErrors the columns of the whitespace-only cells
+     * @param multipleBlankRowsMap the sheets with several blank rows
+     * @param singleBlankRowMap the sheets with a single blank row so far
+     * @param blankRowWhitespaceErrors the whitespace errors found in blank rows
+     */
+    private void recordBlankRow(String sheetName, int rowIndex, boolean hasWhitespaceInBlankCell, StringBuilder rowWhitespaceErrors,
+                                Map<String, List<Integer>> multipleBlankRowsMap, Map<String, Integer> singleBlankRowMap,
+                                List<String> blankRowWhitespaceErrors) {
+        if (multipleBlankRowsMap.containsKey(sheetName)) {
+            multipleBlankRowsMap.get(sheetName).add(rowIndex + 1);
+        } else if (singleBlankRowMap.containsKey(sheetName)) {
+            List<Integer> rowList = new ArrayList<>();
+            rowList.add(singleBlankRowMap.remove(sheetName));
+            rowList.add(rowIndex + 1);
+            multipleBlankRowsMap.put(sheetName, rowList);
+        } else {
+            singleBlankRowMap.put(sheetName, rowIndex + 1);
+        }
+        if (hasWhitespaceInBlankCell) {
+            blankRowWhitespaceErrors.add("Whitespace in New blank Row in Sheet: " + sheetName + " at Row: " + (rowIndex + 1) + rowWhitespaceErrors);
+        }
+    }
+
+    /**
+     * Estimates the cost of the sheets configured for a conversion and reports the engine and writer threads
+     * each of them would get, without converting anything.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param inputExcel the path (or classpath name) to the input Excel file to be converted
+     * @return the report of the estimate, one line per configured sheet, the lines being separated by {@code \n}
+     * @throws Exception if the configurable Excel or the input Excel cannot be read
+     */
+    public String dryRun(String configurableExcel, String inputExcel) throws Exception {
+        List<ConfigurableExcel> queryConfigList = fillSheetParameter(queryConfiguration(configurableExcel, ConversionJob.unbounded()));
+        WorkbookCostEstimate costEstimate = estimateCost(inputExcel, ConversionJob.unbounded());
+        if (costEstimate == null) {
+            return "Workbook: " + inputExcel + " is a legacy XLS workbook, every sheet is streamed with the HSSF event API";
+        }
+        List<String> sheetNames = new ArrayList<>();
+        for (ConfigurableExcel parameters : queryConfigList) {
+            sheetNames.add(parameters.getSheetName());
+        }
+        String report = costEstimate.report(sheetNames);
+        if (extractionEngine != null) {
+            report += "\nEngine fixed to " + extractionEngine + " for every sheet";
+        }
+        return report;
+    }
+
+    /**
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @param job the job deciding when the conversion has to stop
+     * @return the cost estimate of an XLSX workbook, null for a legacy XLS workbook
+     * @throws IOException if the workbook cannot be read
+     */
+    private WorkbookCostEstimate estimateCost(String excelName, ConversionJob job) throws IOException {
+        if (excelUtils.isLegacyExcel(excelName)) {
+            return null;
+        }
+        return new SheetCostEstimator().estimate(excelName, job);
+    }
+
+    /**
+     * Resolves a row of the configurable Excel into its execution plan.
+     *
+     * @param parameters the configuration of the sheet
+     * @param costEstimate the estimate of the workbook, null if there is none
+     * @return the plan, with the engine given to the constructor or else the engine chosen by the estimate
+     * @throws IllegalArgumentException if the sheet range, the row filter or the CSV split is invalid
+     */
+    private SheetExecutionPlan createPlan(ConfigurableExcel parameters, WorkbookCostEstimate costEstimate) {
+        WorkbookCostEstimate.SheetCost sheetCost = costEstimate != null ? costEstimate.getSheet(parameters.getSheetName()) : null;
+        ExtractionEngine engine = extractionEngine;
+        if (engine == null) {
+            engine = sheetCost != null ? sheetCost.getEngine() : ExtractionEngine.IN_MEMORY;
+        }
+        int writerThreads = sheetCost != null ? sheetCost.getWriterThreads() : Runtime.getRuntime().availableProcessors();
+        return SheetExecutionPlan.of(parameters, engine, writerThreads);
+    }
+
     /**
      * Queries the data from an Excel file based on the provided parameters.
      *
@@ -171,42 +542,234 @@ public class Excel2CSV {
      * @return a list of lists, where each inner list represents a row of data from the Excel file
      */
     public List<List<String>> queryExcelData(InputStream getExcelPath, ConfigurableExcel parameters){
-        ExcelUtils excelUtils = new ExcelUtils();
         List<List<String>> excelData = new ArrayList<>();
-        try (getExcelPath; Workbook workbook = new XSSFWorkbook(getExcelPath)) {
-            Sheet sheet = excelUtils.getSheet(workbook, parameters);
-            if (parameters.isTranspose() && (parameters.getSheetRange().isEmpty() || parameters.getSheetRange() == null)) {
-                parameters.setStartRow(2);
-            }
-            if (parameters.getEndRow() == -1) {
-                parameters.setEndRow(sheet.getLastRowNum());
-            }
-            if (parameters.getEndColumn() == -1) {
-                parameters.setEndColumn(excelUtils.getMaxColumn(sheet)-1);
+        try (getExcelPath) {
+            excelData = queryExcelData(OPCPackage.open(getExcelPath), createPlan(parameters, null), ConversionJob.unbounded());
+        } catch (IOException | OpenXML4JException e) {
+            //noinspection CallToPrintStackTrace
+            e.printStackTrace();
+        }
+        return excelData;
+    }
+
+    /**
+     * Queries the data from an Excel file based on the provided parameters.
+     * A filesystem path is opened through a file-backed package instead of being copied into memory first,
+     * and a legacy XLS file is streamed through the HSSF event API.
+     * When the parameters carry a sheet range, the rows of each range are extracted in turn.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @param parameters the configurable Excel parameters for querying the data
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     */
+    public List<List<String>> queryExcelData(String excelName, ConfigurableExcel parameters) {
+        return queryExcelData(excelName, parameters, ConversionJob.unbounded());
+    }
+
+    /**
+     * Queries the data from an Excel file like {@link #queryExcelData(String, ConfigurableExcel)}, counting the
+     * extracted rows on the job and stopping at its checkpoints.
+     * Without an engine given to the constructor, the workbook is estimated for this call; a caller extracting
+     * several sheets of the same workbook estimates it once and passes the estimate to
+     * {@link #queryExcelData(String, ConfigurableExcel, WorkbookCostEstimate, ConversionJob)} instead.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @param parameters the configurable Excel parameters for querying the data
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     * @throws java.util.concurrent.CancellationException if the job was cancelled or a deadline has passed
+     */
+    public List<List<String>> queryExcelData(String excelName, ConfigurableExcel parameters, ConversionJob job) {
+        WorkbookCostEstimate costEstimate = null;
+        if (extractionEngine == null) {
+            try {
+                costEstimate = estimateCost(excelName, job);
+            } catch (IOException e) {
+                // * The workbook is opened again below, which reports the problem
             }
-            if (parameters.isComment()) {
-                parameters.setEndColumn(parameters.getEndColumn() + 1);
+        }
+        return queryExcelData(excelName, parameters, costEstimate, job);
+    }
+
+    /**
+     * Queries the data from an Excel file, choosing the engine of the sheet from an estimate made beforehand.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @param parameters the configurable Excel parameters for querying the data
+     * @param costEstimate the estimate of the workbook from {@link SheetCostEstimator}, null to use the in-memory engine
+     *                     unless an engine was given to the constructor
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     * @throws java.util.concurrent.CancellationException if the job was cancelled or a deadline has passed
+     */
+    public List<List<String>> queryExcelData(String excelName, ConfigurableExcel parameters, WorkbookCostEstimate costEstimate,
+                                             ConversionJob job) {
+        return queryExcelData(excelName, createPlan(parameters, costEstimate), job);
+    }
+
+    /**
+     * Queries the data of a sheet plan from an Excel file; a legacy XLS file is always streamed.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @param plan the execution plan of the sheet
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     */
+    private List<List<String>> queryExcelData(String excelName, SheetExecutionPlan plan, ConversionJob job) {
+        List<List<String>> excelData = new ArrayList<>();
+        try {
+            if (excelUtils.isLegacyExcel(excelName)) {
+                excelData = queryLegacyExcelData(excelName, plan, job);
+            } else {
+                excelData = queryExcelData(excelUtils.openPackage(excelName), plan, job);
             }
-            for (int rowIndex = parameters.getStartRow(); rowIndex <= parameters.getEndRow(); rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                List<String> rowData = new ArrayList<>();
-                for (int cellIndex = parameters.getStartColumn(); cellIndex < parameters.getEndColumn(); cellIndex++) {
-                    if (row != null) {
-                        Cell cell = row.getCell(cellIndex);
-                        if (cell != null) {
-                            rowData.add(excelUtils.getCellValueasString(cell).trim());
-                        }
-                    }
+        } catch (IOException | OpenXML4JException e) {
+            //noinspection CallToPrintStackTrace
+            e.printStackTrace();
+        }
+        return excelData;
+    }
+
+    /**
+     * Queries the data from an opened Excel package with the extraction engine of the plan, then releases the package.
+     * The package, and with the streaming engine its shared strings, are opened once for all the row ranges of the plan.
+     *
+     * @param excelPackage the opened XLSX package
+     * @param plan the execution plan of the sheet
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     */
+    private List<List<String>> queryExcelData(OPCPackage excelPackage, SheetExecutionPlan plan, ConversionJob job) {
+        List<List<String>> excelData = new ArrayList<>();
+        MappedSharedStringsTable sharedStrings = null;
+        try {
+            if (plan.getEngine() == ExtractionEngine.STREAMING) {
+                sharedStrings = StreamingSheetReader.openSharedStrings(excelPackage, job);
+                for (SheetExecutionPlan.RowRange rowRange : plan.getRowRanges()) {
+                    excelData.addAll(queryExcelDataStreaming(excelPackage, sharedStrings, plan, rowRange, job));
+                }
+            } else {
+                Workbook workbook = loadWorkbook(excelPackage, job);
+                for (SheetExecutionPlan.RowRange rowRange : plan.getRowRanges()) {
+                    excelData.addAll(queryExcelDataInMemory(workbook, plan, rowRange, job));
                 }
-                excelData.add(rowData);
             }
-        } catch (IOException e) {
+        } catch (IOException | OpenXML4JException | SAXException e) {
             //noinspection CallToPrintStackTrace
             e.printStackTrace();
+        } finally {
+            if (sharedStrings != null) sharedStrings.close();
+            excelPackage.revert();
         }
         return excelData;
     }
 
+    /**
+     * Loads a workbook for the in-memory engine. POI cannot be stopped while it parses the package, so the job is
+     * checked right before and right after the load: a run cancelled meanwhile stops before its first row is extracted.
+     *
+     * @param excelPackage the opened XLSX package
+     * @param job the job deciding when the conversion has to stop
+     * @return the loaded workbook
+     * @throws IOException if the package cannot be read
+     */
+    private Workbook loadWorkbook(OPCPackage excelPackage, ConversionJob job) throws IOException {
+        job.checkpoint();
+        Workbook workbook = new XSSFWorkbook(excelPackage);
+        job.checkpoint();
+        return workbook;
+    }
+
+    /**
+     * Extracts a row range from a workbook loaded in memory.
+     *
+     * @param workbook the loaded workbook
+     * @param plan the execution plan of the sheet
+     * @param rowRange the rows to extract
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     */
+    private List<List<String>> queryExcelDataInMemory(Workbook workbook, SheetExecutionPlan plan, SheetExecutionPlan.RowRange rowRange,
+                                                      ConversionJob job) {
+        Sheet sheet = excelUtils.getSheet(workbook, plan.getParameters());
+        int startRow = rowRange.getStartRow();
+        int endRow = rowRange.getEndRow() == -1 ? sheet.getLastRowNum() : rowRange.getEndRow();
+        int endColumn = plan.getParameters().getEndColumn() == -1 ? excelUtils.getMaxColumn(sheet) - 1 : plan.getParameters().getEndColumn();
+        SheetDataCollector collector = new SheetDataCollector(plan, startRow, endRow, endColumn);
+        int columnCount = 0;
+        for (Row row : sheet) {
+            columnCount = Math.max(columnCount, row.getLastCellNum());
+        }
+        collector.handleDimension(sheet.getLastRowNum() + 1, columnCount);
+        if (collector.needsHeaderRow() && startRow > 0 && sheet.getRow(0) != null) {
+            collector.handleRow(0, excelUtils.toRowCells(sheet.getRow(0)));
+        }
+        job.startPhase(SheetProgress.Phase.EXTRACTING, endRow - startRow + 1);
+        SheetRowHandler rowHandler = job.trackRows(collector);
+        for (int rowIndex = startRow; rowIndex <= endRow; rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            if (row != null) {
+                rowHandler.handleRow(rowIndex, excelUtils.toRowCells(row));
+            } else {
+                job.rowDone();
+            }
+        }
+        return collector.getExcelData();
+    }
+
+    /**
+     * Streaming variant of {@link #queryExcelDataInMemory}: the sheet is parsed row by row and shared strings are
+     * resolved from a memory-mapped table, so heap use no longer grows with the workbook content.
+     * Produces the same rows, resolving the end row and end column while reading.
+     *
+     * @param excelPackage the opened XLSX package
+     * @param sharedStrings the shared strings of the package, opened once for all its row ranges
+     * @param plan the execution plan of the sheet
+     * @param rowRange the rows to extract
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     */
+    private List<List<String>> queryExcelDataStreaming(OPCPackage excelPackage, MappedSharedStringsTable sharedStrings, SheetExecutionPlan plan,
+                                                       SheetExecutionPlan.RowRange rowRange, ConversionJob job)
+            throws IOException, OpenXML4JException, SAXException {
+        SheetDataCollector collector = createStreamingCollector(plan, rowRange);
+        job.startPhase(SheetProgress.Phase.EXTRACTING, -1);
+        new StreamingSheetReader().readSheet(excelPackage, sharedStrings, plan.getParameters().getSheetName(),
+                job.trackRows(collector, rowRange.getEndRow()));
+        return collector.getExcelData();
+    }
+
+    /**
+     * Extracts the rows of a legacy XLS workbook with the HSSF event API, record by record, without
+     * loading the workbook. Applies the same extraction rules as {@link #queryExcelDataInMemory}.
+     *
+     * @param excelName the filesystem path of the XLS file, or the name of a resource within the classpath
+     * @param plan the execution plan of the sheet
+     * @param job the job receiving the progress
+     * @return a list of lists, where each inner list represents a row of data from the Excel file
+     * @throws IOException if the file or the sheet cannot be read
+     */
+    private List<List<String>> queryLegacyExcelData(String excelName, SheetExecutionPlan plan, ConversionJob job) throws IOException {
+        List<List<String>> excelData = new ArrayList<>();
+        try (POIFSFileSystem fileSystem = excelUtils.openFileSystem(excelName)) {
+            for (SheetExecutionPlan.RowRange rowRange : plan.getRowRanges()) {
+                SheetDataCollector collector = createStreamingCollector(plan, rowRange);
+                job.startPhase(SheetProgress.Phase.EXTRACTING, -1);
+                new HSSFEventSheetReader().readSheet(fileSystem, plan.getParameters().getSheetName(),
+                        job.trackRows(collector, rowRange.getEndRow()));
+                excelData.addAll(collector.getExcelData());
+            }
+        }
+        return excelData;
+    }
+
+    /**
+     * Creates the collector of a streaming engine, which resolves the end row and end column while reading.
+     */
+    private SheetDataCollector createStreamingCollector(SheetExecutionPlan plan, SheetExecutionPlan.RowRange rowRange) {
+        return new SheetDataCollector(plan, rowRange.getStartRow(), rowRange.getEndRow(), plan.getParameters().getEndColumn());
+    }
+
     /**
      * Transposes the given two-dimensional list of strings (Excel data).
      *
@@ -261,28 +824,172 @@ public class Excel2CSV {
     /**
      * Writes the provided Excel data to a CSV file based on the parameters.
      *
-     * @param parameters The configurableExcel object containing parameters for particular sheet.
+     * @param plan the execution plan of the sheet, giving the CSV split and the number of writer threads
      * @param excelData the data to be written to the CSV file
      * @param csvFilePath is used to store the path of temporary folder
+     * @param job the job receiving the progress
+     * @return the written files
      * @throws IOException if an error occurs while writing the CSV file
      */
-    private void writeCSV(ConfigurableExcel parameters, List<List<String>> excelData, String csvFilePath) throws IOException {
-
-        if (parameters.getSheetPath() != null) {
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFilePath), StandardCharsets.UTF_8))) {
+    private List<Path> writeCSV(SheetExecutionPlan plan, List<List<String>> excelData, String csvFilePath,
+                                ConversionJob job) throws IOException {
+        List<Path> outputFiles = new ArrayList<>();
+        if (plan.getParameters().getSheetPath() != null) {
+            job.startPhase(SheetProgress.Phase.WRITING, Math.max(excelData.size() - 1, 0));
+            if (plan.getCsvSplit() != null) {
+                return writeCSVParts(plan.getCsvSplit(), excelData, csvFilePath, plan.getWriterThreads(), job);
+            }
+            try (CsvSink writer = new CsvSink(Paths.get(csvFilePath))) {
                 // Write the standardized header to the CSV file
                 standardizedHeader(writer, excelData);
                 for (int rowIndex = 1; rowIndex < excelData.size(); rowIndex++) {
-                    List<String> row = excelData.get(rowIndex);
-                    for (int i = 0; i < row.size(); i++) {
-                        if (row.get(i) != null) writer.write(especialCharacters(row.get(i)));
-                        else writer.append("");
-                        if (i < row.size() - 1) writer.append(",");
-                    }
+                    writeRow(writer, excelData.get(rowIndex));
                     if (rowIndex != excelData.size()-1) writer.newLine();
+                    job.rowDone();
+                }
+            }
+            outputFiles.add(Paths.get(csvFilePath));
+        }
+        return outputFiles;
+    }
+
+    /**
+     * Writes one data row as a CSV line, without the line separator.
+     *
+     * @param writer the CSV file being written
+     * @param row the cell values of the row
+     * @throws IOException if an error occurs while writing the CSV file
+     */
+    private void writeRow(CsvSink writer, List<String> row) throws IOException {
+        for (int i = 0; i < row.size(); i++) {
+            if (row.get(i) != null) writer.write(especialCharacters(row.get(i)));
+            if (i < row.size() - 1) writer.write(',');
+        }
+    }
+
+    /**
+     * Writes the Excel data as several CSV parts next to the configured CSV file, each one starting with the
+     * standardized header, plus a manifest listing the parts. Parts split by row count are written
+     * concurrently; parts split by size are rolled one after the other, a part being closed once the bytes
+     * written to it reach the limit.
+     * For example customers.csv becomes customers.part0001.csv, customers.part0002.csv and customers.manifest.tsv,
+     * the manifest having another extension so that a {@code *.csv} pattern only matches the parts.
+     *
+     * @param csvSplit how the output is split
+     * @param excelData the data to be written, the first row being the header
+     * @param csvFilePath the path of the CSV file the parts are named after
+     * @param writerThreads the maximum number of threads writing parts split by row count
+     * @param job the job receiving the progress
+     * @return the written parts followed by the manifest
+     * @throws IOException if an error occurs while writing a part or the manifest
+     */
+    private List<Path> writeCSVParts(CsvSplit csvSplit, List<List<String>> excelData, String csvFilePath, int writerThreads,
+                                     ConversionJob job) throws IOException {
+        CsvManifest manifest = new CsvManifest();
+        int dataRows = Math.max(excelData.size() - 1, 0);
+        if (csvSplit.isRowCount()) {
+            int partCount = (int) Math.max((dataRows + csvSplit.getLimit() - 1) / csvSplit.getLimit(), 1);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(partCount, writerThreads)));
+            try {
+                List<Future<CsvManifest.Part>> futures = new ArrayList<>();
+                for (int partIndex = 0; partIndex < partCount; partIndex++) {
+                    int partNumber = partIndex + 1;
+                    int fromRow = 1 + (int) (partIndex * csvSplit.getLimit());
+                    int toRow = (int) Math.min(fromRow + csvSplit.getLimit(), excelData.size());
+                    futures.add(executor.submit(() -> writeCSVPart(csvFilePath, partNumber, excelData, fromRow, toRow, 0, job)));
                 }
+                for (Future<CsvManifest.Part> future : futures) {
+                    manifest.addPart(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("CSV PART WRITING INTERRUPTED: " + csvFilePath, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IOException("UNABLE TO WRITE CSV PART: " + csvFilePath, e.getCause());
+            } finally {
+                executor.shutdownNow();
             }
+        } else {
+            int fromRow = 1;
+            int partNumber = 1;
+            do {
+                CsvManifest.Part part = writeCSVPart(csvFilePath, partNumber++, excelData, fromRow, excelData.size(), csvSplit.getLimit(), job);
+                manifest.addPart(part);
+                fromRow += (int) part.getRowCount();
+            } while (fromRow < excelData.size());
+        }
+        Path manifestPath = Paths.get(getManifestFilePath(csvFilePath));
+        manifest.write(manifestPath);
+        List<Path> outputFiles = new ArrayList<>();
+        for (CsvManifest.Part part : manifest.getParts()) {
+            outputFiles.add(Paths.get(getPartFilePath(csvFilePath, String.format("part%04d", part.getPartNumber()))));
         }
+        outputFiles.add(manifestPath);
+        return outputFiles;
+    }
+
+    /**
+     * Writes rows of the Excel data as one CSV part, preceded by the standardized header.
+     * With a byte limit the part ends after the first row that makes it reach the limit; it always holds at least one row.
+     *
+     * @param csvFilePath the path of the CSV file the part is named after
+     * @param partNumber the one-based number of the part
+     * @param excelData the data to be written, the first row being the header
+     * @param fromRow the first data row of the part, inclusive
+     * @param toRow the last data row of the part, exclusive
+     * @param byteLimit the size at which the part is closed, 0 to write every row up to toRow
+     * @param job the job receiving the progress
+     * @return the manifest entry of the written part, giving the number of rows actually written
+     * @throws IOException if an error occurs while writing the part
+     */
+    private CsvManifest.Part writeCSVPart(String csvFilePath, int partNumber, List<List<String>> excelData, int fromRow, int toRow,
+                                          long byteLimit, ConversionJob job) throws IOException {
+        String partFilePath = getPartFilePath(csvFilePath, String.format("part%04d", partNumber));
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 IS NOT AVAILABLE", e);
+        }
+        int rowIndex = fromRow;
+        try (CsvSink writer = new CsvSink(Paths.get(partFilePath), digest)) {
+            standardizedHeader(writer, excelData);
+            while (rowIndex < toRow) {
+                if (rowIndex != fromRow) writer.newLine();
+                writeRow(writer, excelData.get(rowIndex++));
+                job.rowDone();
+                if (byteLimit > 0 && writer.getBytesWritten() >= byteLimit) break;
+            }
+        }
+        return new CsvManifest.Part(partNumber, new File(partFilePath).getName(), rowIndex - fromRow,
+                new File(partFilePath).length(), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * @param csvFilePath the path of the configured CSV file, for example data/customers.csv
+     * @param suffix the suffix to insert before the extension, for example part0001
+     * @return the path of the derived file, for example data/customers.part0001.csv
+     */
+    private String getPartFilePath(String csvFilePath, String suffix) {
+        int extensionIndex = csvFilePath.lastIndexOf('.');
+        if (extensionIndex <= csvFilePath.lastIndexOf(File.separatorChar)) {
+            return csvFilePath + "." + suffix + ".csv";
+        }
+        return csvFilePath.substring(0, extensionIndex) + "." + suffix + csvFilePath.substring(extensionIndex);
+    }
+
+    /**
+     * @param csvFilePath the path of the configured CSV file, for example data/customers.csv
+     * @return the path of the manifest of its parts, for example data/customers.manifest.tsv
+     */
+    private String getManifestFilePath(String csvFilePath) {
+        int extensionIndex = csvFilePath.lastIndexOf('.');
+        if (extensionIndex <= csvFilePath.lastIndexOf(File.separatorChar)) {
+            return csvFilePath + ".manifest.tsv";
+        }
+        return csvFilePath.substring(0, extensionIndex) + ".manifest.tsv";
     }
 
     /**
@@ -313,61 +1020,31 @@ public class Excel2CSV {
     }
 
     /**
-     * Standardizes and writes the header row of Excel data to the specified BufferedWriter.
+     * Standardizes and writes the header row of Excel data to the specified CSV sink.
      *
-     * @param writer    The BufferedWriter to write the standardized header data.
+     * @param writer    The CSV sink to write the standardized header data.
      * @param excelData The two-dimensional list representing Excel data, where the first list is assumed to be the header row.
-     * @throws IOException If an I/O error occurs while writing to the BufferedWriter.
+     * @throws IOException If an I/O error occurs while writing to the CSV sink.
      */
-    private void standardizedHeader(BufferedWriter writer, List<List<String>> excelData) throws IOException {
+    private void standardizedHeader(CsvSink writer, List<List<String>> excelData) throws IOException {
         List<String> excelHeaderData = excelData.get(0);
         for (int columnIndex = 0; columnIndex < excelHeaderData.size(); columnIndex++) {
             String headerData = excelHeaderData.get(columnIndex);
-            if (headerData != null) {
-                headerData = headerData.replace("*", "").toLowerCase().replaceAll("\\s+", "_")
-                        .replaceAll("_+$", "");
-            }
-            writer.append(headerData != null ? headerData : "");
-            if (columnIndex < excelHeaderData.size() - 1) writer.append(",");
+            writer.write(headerData != null ? standardizeHeaderName(headerData) : "");
+            if (columnIndex < excelHeaderData.size() - 1) writer.write(',');
         }
         writer.newLine();
     }
 
     /**
-     * Retrieves Excel data from specific row ranges defined in parameters.getSheetRange().
-     * Each range is processed separately and concatenated into a single two-dimensional list of strings.
-     * for example: (3, 10-15), 8 etc.
-     *
-     * @param inputExcel the path to the input Excel file
-     * @param parameters the configurable Excel parameters containing the sheet range and other settings
-     * @return a list of lists, where each inner list represents a row of data from the specified ranges in the Excel file
-     * @throws IOException if an error occurs while reading the Excel file
-     */
-    private List<List<String>> specificRange(String inputExcel, ConfigurableExcel parameters) throws IOException {
-        ExcelUtils excelUtils = new ExcelUtils();
-        int startRow, endRow;
-        List<List<String>> excelData = null;
-        // Split the sheet range parameter into individual ranges
-        String[] range = parameters.getSheetRange().split(",");
-        for (String rangeIndex : range) {
-            // Load the input Excel file from the resource folder
-            InputStream inputExcelPath = excelUtils.getResourceAsStream(inputExcel);
-            // Parse the start row from the range and adjust for zero-based indexing
-            startRow = Integer.parseInt(rangeIndex.split("-")[0].trim()) - 1;
-            // Parse the end row from the range if it exists, otherwise set it to the start row
-            if (rangeIndex.contains("-")) {
-                endRow = Integer.parseInt(rangeIndex.split("-")[1].trim()) - 1;
-            }
-            else endRow=startRow;
-
-            parameters.setStartRow(startRow);
-            parameters.setEndRow(endRow);
-            List<List<String>> tempExcelData = queryExcelData(inputExcelPath, parameters);
-            if (excelData == null) excelData = tempExcelData;
-            else excelData.addAll(tempExcelData);
-            inputExcelPath.close();
-        }
-        return excelData;
+     * Standardizes a header name as written to the CSV header: without asterisks, lower-cased, with runs of
+     * whitespace replaced by underscores and no trailing underscore, for example "Customer Id *" becomes customer_id.
+     *
+     * @param headerName the header name of the sheet
+     * @return the header name of the CSV file
+     */
+    static String standardizeHeaderName(String headerName) {
+        return headerName.replace("*", "").toLowerCase().replaceAll("\\s+", "_").replaceAll("_+$", "");
     }
 
     /**
@@ -378,30 +1055,42 @@ public class Excel2CSV {
      * @return The escaped cell value formatted for CSV.
      */
     private String especialCharacters(String cellValue) {
-        cellValue = cellValue.replaceAll("\"", "\"\"");
-        String regex = "[,\\n'/\\\\\"]";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(cellValue);
-        if (matcher.find()) {
+        cellValue = cellValue.replace("\"", "\"\"");
+        if (SPECIAL_CHARACTERS.matcher(cellValue).find()) {
             cellValue = "\"" + cellValue + "\"";
         }
         return cellValue;
     }
 
+    /**
+     * Reads the rows of the configurable Excel. Columns B to K are read by position, a blank or missing cell
+     * giving an empty value, so every row has the same columns whether or not its optional cells are filled.
+     * The configurable Excel is small, it is not estimated.
+     *
+     * @param configurableExcel the path (or classpath name) to the configurable Excel file containing the conversion parameters
+     * @param job the job receiving the progress
+     * @return the header row followed by one row per CSV file, each with the ten configuration columns
+     */
+    List<List<String>> queryConfiguration(String configurableExcel, ConversionJob job) {
+        ConfigurableExcel excelQueryParameters = new ConfigurableExcel(0, -1, 1, -1, null, null, false, true, null, false,
+                CONFIGURATION_COLUMNS, null, null);
+        return queryExcelData(configurableExcel, excelQueryParameters, null, job);
+    }
+
     /**
      * Converts a two-dimensional list of strings into a list of configurableExcel objects.
      * Each inner list represents data for a configurableExcel object.
      *
-     * @param configurableExcelData The two-dimensional list of strings containing data for configurableExcel objects.
+     * @param configurableExcelData The rows of {@link #queryConfiguration}, the header row first.
      * @return A list of configurableExcel objects populated with data from configurableExcelData.
      */
-    private List<ConfigurableExcel> fillSheetParameter(List<List<String>> configurableExcelData) {
+    List<ConfigurableExcel> fillSheetParameter(List<List<String>> configurableExcelData) {
         List<ConfigurableExcel> queryConfigList = new ArrayList<>();
         for (int rowIndex = 1; rowIndex < configurableExcelData.size(); rowIndex++) {
             List<String> rowData = configurableExcelData.get(rowIndex);
             ConfigurableExcel parameters = new ConfigurableExcel(0, -1, 1, -1, rowData.get(0),
                     rowData.get(1), Boolean.parseBoolean(rowData.get(2)), Boolean.parseBoolean(rowData.get(3)), rowData.get(4),
-                    Boolean.parseBoolean(rowData.get(5)));
+                    Boolean.parseBoolean(rowData.get(5)), rowData.get(6), rowData.get(7), rowData.get(8), rowData.get(9));
             queryConfigList.add(parameters);
         }
         return queryConfigList;
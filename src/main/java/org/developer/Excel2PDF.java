@@ -6,6 +6,8 @@ import com.itextpdf.text.pdf.BaseFont;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.usermodel.XSSFColor;
@@ -20,11 +22,10 @@ import java.util.List;
 public class Excel2PDF {
 
     public static void main(String[] args) {
-        ExcelUtils excelUtils = new ExcelUtils();
         String excelFile = "CSD_Internal.xlsx";
         String pdfFilePath = "D://convertedPDF//CSD.pdf";
         try {
-            convertExcelToPDF(excelUtils.getResourceAsStream(excelFile), pdfFilePath);
+            convertExcelToPDF(excelFile, pdfFilePath);
             System.out.println("Excel file converted to PDF successfully.");
         } catch (Exception e) {
             //noinspection CallToPrintStackTrace
@@ -33,8 +34,33 @@ public class Excel2PDF {
     }
 
     public static void convertExcelToPDF(InputStream excelFilePath, String pdfFilePath) throws IOException, DocumentException {
-        try (Workbook workbook = new XSSFWorkbook(excelFilePath);
-             FileOutputStream pdfFile = new FileOutputStream(pdfFilePath)) {
+        try (Workbook workbook = new XSSFWorkbook(excelFilePath)) {
+            convertExcelToPDF(workbook, pdfFilePath);
+        }
+    }
+
+    /**
+     * Converts an Excel file given by a filesystem path (or a classpath name) to PDF.
+     * A file is opened through a file-backed package instead of being copied into memory first.
+     *
+     * @param excelFile the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @param pdfFilePath the path of the PDF file to create
+     * @throws IOException if the Excel file cannot be read or the PDF file cannot be written
+     * @throws DocumentException if the PDF document cannot be built
+     * @throws InvalidFormatException if the Excel file is not a valid XLSX package
+     */
+    public static void convertExcelToPDF(String excelFile, String pdfFilePath) throws IOException, DocumentException, InvalidFormatException {
+        ExcelUtils excelUtils = new ExcelUtils();
+        OPCPackage excelPackage = excelUtils.openPackage(excelFile);
+        try {
+            convertExcelToPDF(new XSSFWorkbook(excelPackage), pdfFilePath);
+        } finally {
+            excelPackage.revert();
+        }
+    }
+
+    private static void convertExcelToPDF(Workbook workbook, String pdfFilePath) throws IOException, DocumentException {
+        try (FileOutputStream pdfFile = new FileOutputStream(pdfFilePath)) {
             ExcelUtils excelUtils = new ExcelUtils();
             Document document = new Document(PageSize.A4.rotate());
             PdfWriter.getInstance(document, pdfFile);
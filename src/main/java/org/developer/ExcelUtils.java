@@ -1,7 +1,19 @@
 package org.developer;
 
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
 
 public class ExcelUtils {
     /**
@@ -14,6 +26,93 @@ public class ExcelUtils {
         return (getClass().getClassLoader().getResourceAsStream(resourceName));
     }
 
+    /**
+     * Opens an XLSX package from a filesystem path, falling back to a resource in the classpath.
+     * A file is opened read-only through a file-backed package, which reads zip entries on demand
+     * through random access instead of buffering the whole workbook in memory first.
+     * The caller must release the package with {@link OPCPackage#revert()}.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @return the opened package
+     * @throws IOException if the file is neither on the filesystem nor in the classpath, or cannot be read
+     * @throws InvalidFormatException if the file is not a valid XLSX package
+     */
+    protected OPCPackage openPackage(String excelName) throws IOException, InvalidFormatException {
+        Path excelPath = toFilePath(excelName);
+        if (excelPath != null) {
+            return OPCPackage.open(excelPath.toFile(), PackageAccess.READ);
+        }
+        InputStream resource = getResourceAsStream(excelName);
+        if (resource == null) {
+            throw new FileNotFoundException("EXCEL FILE NOT FOUND: " + excelName);
+        }
+        try (resource) {
+            return OPCPackage.open(resource);
+        }
+    }
+
+    /**
+     * Opens a legacy XLS file system from a filesystem path, falling back to a resource in the classpath.
+     * A file is opened read-only and its blocks are read on demand.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @return the opened file system, to be closed by the caller
+     * @throws IOException if the file is neither on the filesystem nor in the classpath, or is not an OLE2 file
+     */
+    protected POIFSFileSystem openFileSystem(String excelName) throws IOException {
+        Path excelPath = toFilePath(excelName);
+        if (excelPath != null) {
+            return new POIFSFileSystem(excelPath.toFile(), true);
+        }
+        InputStream resource = getResourceAsStream(excelName);
+        if (resource == null) {
+            throw new FileNotFoundException("EXCEL FILE NOT FOUND: " + excelName);
+        }
+        try (resource) {
+            return new POIFSFileSystem(resource);
+        }
+    }
+
+    /**
+     * Opens the raw bytes of an Excel file from a filesystem path, falling back to a resource in the classpath.
+     *
+     * @param excelName the filesystem path of the Excel file, or the name of a resource within the classpath
+     * @return the opened stream, to be closed by the caller
+     * @throws IOException if the file is neither on the filesystem nor in the classpath
+     */
+    protected InputStream openInputStream(String excelName) throws IOException {
+        Path excelPath = toFilePath(excelName);
+        if (excelPath != null) {
+            return Files.newInputStream(excelPath);
+        }
+        InputStream resource = getResourceAsStream(excelName);
+        if (resource == null) {
+            throw new FileNotFoundException("EXCEL FILE NOT FOUND: " + excelName);
+        }
+        return resource;
+    }
+
+    /**
+     * @param excelName the filesystem path or classpath resource name of an Excel file
+     * @return true for a legacy XLS (BIFF8) workbook, read with the HSSF event API
+     */
+    protected boolean isLegacyExcel(String excelName) {
+        return excelName.toLowerCase(Locale.ROOT).endsWith(".xls");
+    }
+
+    /**
+     * @param excelName the filesystem path or classpath resource name of an Excel file
+     * @return the path if it names a regular file on the filesystem, otherwise null
+     */
+    protected Path toFilePath(String excelName) {
+        try {
+            Path excelPath = Paths.get(excelName);
+            return Files.isRegularFile(excelPath) ? excelPath : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
     /**
      * Retrieves the appropriate sheet from the workbook based on the provided parameters.
      *
@@ -83,4 +182,29 @@ public class ExcelUtils {
                 return "";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Wraps a row of a loaded workbook so it can be handed to a {@link SheetRowHandler}.
+     *
+     * @param row the Excel Row object to wrap
+     * @return a RowCells view formatting the cells with {@link #getCellValueasString(Cell)}
+     */
+    protected RowCells toRowCells(Row row) {
+        return new RowCells() {
+            @Override
+            public int getLastColumn() {
+                return row.getLastCellNum();
+            }
+
+            @Override
+            public boolean hasCell(int columnIndex) {
+                return row.getCell(columnIndex) != null;
+            }
+
+            @Override
+            public String getValue(int columnIndex) {
+                return getCellValueasString(row.getCell(columnIndex));
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package org.developer;
+
+/**
+ * The engines {@link Excel2CSV} can extract an XLSX sheet with.
+ */
+public enum ExtractionEngine {
+    /** Loads the whole workbook as an {@code XSSFWorkbook}. */
+    IN_MEMORY,
+    /** Parses only the sheet XML with SAX and resolves shared strings from a memory-mapped table. */
+    STREAMING
+}
@@ -0,0 +1,315 @@
+package org.developer;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder.SheetRecordCollectingListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.formula.ptg.ExpPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming extraction engine for legacy XLS (BIFF8) workbooks, built on POI's HSSF event API.
+ * Records are turned into rows for a {@link SheetRowHandler} as they are read, so the workbook is never
+ * loaded as an {@code HSSFWorkbook}. Cells are formatted like {@link ExcelUtils#getCellValueasString};
+ * formulas are rendered from their parsed tokens against a stub workbook built from the workbook records.
+ * A cell of a shared or array formula only points to the first cell of its group, so the formula is taken from
+ * the {@code SHRFMLA} or {@code ARRAY} record of the group, like {@code HSSFCell} does; a cell of a data table
+ * gives its cached value.
+ */
+public class HSSFEventSheetReader {
+
+    /**
+     * Reads a sheet of the workbook and passes its rows to the handler.
+     *
+     * @param fileSystem the opened XLS file system
+     * @param sheetName the sheet to read; ignored when the workbook has exactly one sheet, like {@link ExcelUtils#getSheet}
+     * @param handler the handler receiving the rows
+     * @throws IOException if the sheet does not exist or the workbook cannot be read
+     */
+    public void readSheet(POIFSFileSystem fileSystem, String sheetName, SheetRowHandler handler) throws IOException {
+        SheetListener sheetListener = new SheetListener(sheetName, handler);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(sheetListener);
+        try {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem);
+        } catch (HSSFUserException e) {
+            throw new IOException("UNABLE TO READ XLS WORKBOOK", e);
+        }
+        if (!sheetListener.isSheetFound) {
+            throw new IOException("SHEET DOES NOT EXIST: " + sheetName);
+        }
+    }
+
+    /**
+     * Follows the record stream: collects the sheet names of the workbook globals, skips the other sheets,
+     * and groups the cell records of the selected sheet into rows. Processing is aborted as soon as the
+     * selected sheet has been read or the handler needs no more rows.
+     */
+    private static final class SheetListener extends AbortableHSSFListener implements RowCells {
+        private static final short CONTINUE = 0;
+        private static final short ABORT = 1;
+
+        private final String sheetName;
+        private final SheetRowHandler handler;
+        private final FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(record -> { });
+        private final SheetRecordCollectingListener workbookListener = new SheetRecordCollectingListener(formatListener);
+        private final List<BoundSheetRecord> boundSheetRecords = new ArrayList<>();
+        private BoundSheetRecord[] orderedSheets;
+        private SSTRecord sstRecord;
+        private boolean isDate1904;
+        private int sheetIndex = -1;
+        private int targetSheetIndex = -1;
+        private boolean isInTargetSheet;
+        private boolean isSheetFound;
+
+        // * Row numbers announced by ROW records and not handed over yet, a ROW block announces at most 32 rows
+        private final List<Integer> declaredRows = new ArrayList<>();
+        private int rowIndex = -1;
+        private int cellCount;
+        private int lastColumn = -1;
+        private int[] columns = new int[16];
+        // * Records of the accepted cells, only formatted when the handler asks for the value
+        private Record[] records = new Record[16];
+        // * Cached text of the accepted formula cells, from the STRING record following their FORMULA record
+        private String[] cachedStrings = new String[16];
+        private int cachedStringSlot = -1;
+        // * Shared and array formulas of the sheet, by the first cell of their group
+        private final Map<Integer, SharedValueRecordBase> sharedValues = new HashMap<>();
+
+        private SheetListener(String sheetName, SheetRowHandler handler) {
+            this.sheetName = sheetName;
+            this.handler = handler;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            workbookListener.processRecord(record);
+            switch (record.getSid()) {
+                case BoundSheetRecord.sid:
+                    boundSheetRecords.add((BoundSheetRecord) record);
+                    return CONTINUE;
+                case SSTRecord.sid:
+                    sstRecord = (SSTRecord) record;
+                    return CONTINUE;
+                case DateWindow1904Record.sid:
+                    isDate1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    return CONTINUE;
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        startSheet();
+                    }
+                    return CONTINUE;
+                case EOFRecord.sid:
+                    if (isInTargetSheet) {
+                        startRow(Integer.MAX_VALUE);
+                        return ABORT;
+                    }
+                    return CONTINUE;
+                default:
+                    break;
+            }
+            if (!isInTargetSheet) {
+                return CONTINUE;
+            }
+            if (record instanceof DimensionsRecord) {
+                // * The last row and column of DIMENSIONS are already one past the last used ones
+                DimensionsRecord dimensions = (DimensionsRecord) record;
+                handler.handleDimension(dimensions.getLastRow(), dimensions.getLastCol());
+                return CONTINUE;
+            }
+            if (record instanceof RowRecord) {
+                declaredRows.add(((RowRecord) record).getRowNumber());
+                return CONTINUE;
+            }
+            if (record instanceof SharedFormulaRecord || record instanceof ArrayRecord) {
+                // * Kept even when the first cell of the group is not extracted, the later cells need it
+                SharedValueRecordBase sharedValue = (SharedValueRecordBase) record;
+                sharedValues.put(getCellKey(sharedValue.getFirstRow(), sharedValue.getFirstColumn()), sharedValue);
+                return CONTINUE;
+            }
+            if (record instanceof StringRecord) {
+                if (cachedStringSlot >= 0) cachedStrings[cachedStringSlot] = ((StringRecord) record).getString();
+                return CONTINUE;
+            }
+            if (record instanceof CellValueRecordInterface) {
+                CellValueRecordInterface cellRecord = (CellValueRecordInterface) record;
+                return addCell(cellRecord.getRow(), cellRecord.getColumn(), record);
+            }
+            if (record instanceof MulBlankRecord) {
+                MulBlankRecord mulBlankRecord = (MulBlankRecord) record;
+                for (int column = mulBlankRecord.getFirstColumn(); column <= mulBlankRecord.getLastColumn(); column++) {
+                    if (addCell(mulBlankRecord.getRow(), column, null) == ABORT) return ABORT;
+                }
+            }
+            return CONTINUE;
+        }
+
+        private void startSheet() {
+            if (orderedSheets == null) {
+                orderedSheets = BoundSheetRecord.orderByBofPosition(boundSheetRecords);
+                for (int index = 0; index < orderedSheets.length; index++) {
+                    if (orderedSheets.length == 1 || orderedSheets[index].getSheetname().equalsIgnoreCase(sheetName)) {
+                        targetSheetIndex = index;
+                        break;
+                    }
+                }
+            }
+            sheetIndex++;
+            isInTargetSheet = sheetIndex == targetSheetIndex;
+            isSheetFound |= isInTargetSheet;
+        }
+
+        private short addCell(int cellRow, int cellColumn, Record record) {
+            if (cellRow != rowIndex && startRow(cellRow) == ABORT) {
+                return ABORT;
+            }
+            lastColumn = Math.max(lastColumn, cellColumn + 1);
+            cachedStringSlot = -1;
+            if (!handler.acceptsCell(cellRow, cellColumn)) {
+                return CONTINUE;
+            }
+            if (cellCount == columns.length) {
+                columns = Arrays.copyOf(columns, cellCount * 2);
+                records = Arrays.copyOf(records, cellCount * 2);
+                cachedStrings = Arrays.copyOf(cachedStrings, cellCount * 2);
+            }
+            columns[cellCount] = cellColumn;
+            records[cellCount] = record;
+            cachedStrings[cellCount] = null;
+            if (record instanceof FormulaRecord) {
+                cachedStringSlot = cellCount;
+            }
+            cellCount++;
+            return CONTINUE;
+        }
+
+        /**
+         * Hands over the current row, then the declared rows without cells that come before the next row.
+         *
+         * @param nextRow the row of the cell just read, {@link Integer#MAX_VALUE} at the end of the sheet
+         */
+        private short startRow(int nextRow) {
+            if (rowIndex >= 0) {
+                handler.handleRow(rowIndex, this);
+                if (handler.isFinished(rowIndex)) return ABORT;
+            }
+            cellCount = 0;
+            lastColumn = -1;
+            declaredRows.sort(Integer::compare);
+            Iterator<Integer> declaredRowIterator = declaredRows.iterator();
+            while (declaredRowIterator.hasNext()) {
+                int declaredRow = declaredRowIterator.next();
+                if (declaredRow >= nextRow) break;
+                declaredRowIterator.remove();
+                handler.handleRow(declaredRow, this);
+                if (handler.isFinished(declaredRow)) return ABORT;
+            }
+            declaredRows.remove(Integer.valueOf(nextRow));
+            rowIndex = nextRow;
+            return CONTINUE;
+        }
+
+        private String formatCell(int slot) {
+            Record record = records[slot];
+            if (record == null) {
+                return "";
+            }
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid:
+                    return sstRecord == null ? "" : sstRecord.getString(((LabelSSTRecord) record).getSSTIndex()).getString();
+                case LabelRecord.sid:
+                    return ((LabelRecord) record).getValue();
+                case NumberRecord.sid:
+                    NumberRecord numberRecord = (NumberRecord) record;
+                    return formatNumber(numberRecord, numberRecord.getValue());
+                case FormulaRecord.sid:
+                    return formatFormula((FormulaRecord) record, cachedStrings[slot]);
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                    return boolErrRecord.isBoolean() ? String.valueOf(boolErrRecord.getBooleanValue()) : "";
+                default:
+                    return "";
+            }
+        }
+
+        private String formatNumber(CellValueRecordInterface record, double numericValue) {
+            if (DateUtil.isADateFormat(formatListener.getFormatIndex(record), formatListener.getFormatString(record))
+                    && DateUtil.isValidExcelDate(numericValue)) {
+                return DateUtil.getJavaDate(numericValue, isDate1904).toString();
+            }
+            return String.valueOf((int) numericValue);
+        }
+
+        /**
+         * @param formulaRecord the record of the formula cell
+         * @param cachedString the cached text of the formula, null if it has none
+         * @return the formula of the cell, or its cached value for a data table
+         */
+        private String formatFormula(FormulaRecord formulaRecord, String cachedString) {
+            Ptg[] tokens = formulaRecord.getParsedExpression();
+            if (tokens.length == 1 && tokens[0] instanceof ExpPtg) {
+                ExpPtg groupCell = (ExpPtg) tokens[0];
+                SharedValueRecordBase sharedValue = sharedValues.get(getCellKey(groupCell.getRow(), groupCell.getColumn()));
+                if (sharedValue instanceof SharedFormulaRecord) {
+                    tokens = ((SharedFormulaRecord) sharedValue).getFormulaTokens(formulaRecord);
+                } else if (sharedValue instanceof ArrayRecord) {
+                    tokens = ((ArrayRecord) sharedValue).getFormulaTokens();
+                } else {
+                    return formatCachedValue(formulaRecord, cachedString);
+                }
+            }
+            return HSSFFormulaParser.toFormulaString(workbookListener.getStubHSSFWorkbook(), tokens);
+        }
+
+        private String formatCachedValue(FormulaRecord formulaRecord, String cachedString) {
+            switch (formulaRecord.getCachedResultTypeEnum()) {
+                case STRING:
+                    return cachedString != null ? cachedString : "";
+                case NUMERIC:
+                    return formatNumber(formulaRecord, formulaRecord.getValue());
+                case BOOLEAN:
+                    return String.valueOf(formulaRecord.getCachedBooleanValue());
+                default:
+                    return "";
+            }
+        }
+
+        /**
+         * @return a key of the cell, XLS sheets having at most 256 columns
+         */
+        private static int getCellKey(int cellRow, int cellColumn) {
+            return cellRow << 8 | cellColumn;
+        }
+
+        @Override
+        public int getLastColumn() {
+            return lastColumn;
+        }
+
+        @Override
+        public boolean hasCell(int columnIndex) {
+            return Arrays.binarySearch(columns, 0, cellCount, columnIndex) >= 0;
+        }
+
+        @Override
+        public String getValue(int columnIndex) {
+            int slot = Arrays.binarySearch(columns, 0, cellCount, columnIndex);
+            return slot < 0 ? "" : formatCell(slot);
+        }
+    }
+}
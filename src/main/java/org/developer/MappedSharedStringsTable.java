@@ -0,0 +1,274 @@
+package org.developer;
+
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared-strings table of an XLSX workbook kept off-heap.
+ * The strings of {@code sharedStrings.xml} are written once, UTF-8 encoded, into a temporary data file and
+ * their start offsets into a temporary index file. Both files are memory-mapped and a string is only decoded
+ * when a cell refers to it, with a small LRU of recently used entries, so heap use does not grow with the
+ * number of distinct strings.
+ */
+public class MappedSharedStringsTable implements SharedStrings, Closeable {
+    // * Multiple of 8 so that an index entry never crosses two mapped segments
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    // * Strings written between two checks of the job
+    private static final int CHECK_INTERVAL = 4096;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final MappedByteBuffer[] dataSegments;
+    private final MappedByteBuffer[] indexSegments;
+    private final int uniqueCount;
+    private final int count;
+    private final Map<Integer, String> hotEntries;
+
+    /**
+     * Builds the table from the shared strings part of a workbook.
+     *
+     * @param sharedStringsData the InputStream of {@code sharedStrings.xml}; it is read fully but not closed
+     * @throws IOException if the temporary files cannot be written or mapped, or the part cannot be parsed
+     */
+    public MappedSharedStringsTable(InputStream sharedStringsData) throws IOException {
+        this(sharedStringsData, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Builds the table from the shared strings part of a workbook, checking the job while the strings are written.
+     *
+     * @param sharedStringsData the InputStream of {@code sharedStrings.xml}; it is read fully but not closed
+     * @param job the job deciding when the conversion has to stop
+     * @throws IOException if the temporary files cannot be written or mapped, or the part cannot be parsed
+     * @throws java.util.concurrent.CancellationException if the job stopped the conversion, the temporary files being removed
+     */
+    public MappedSharedStringsTable(InputStream sharedStringsData, ConversionJob job) throws IOException {
+        this(sharedStringsData, DEFAULT_CACHE_SIZE, job);
+    }
+
+    /**
+     * Builds the table from the shared strings part of a workbook.
+     *
+     * @param sharedStringsData the InputStream of {@code sharedStrings.xml}; it is read fully but not closed
+     * @param cacheSize the number of decoded strings kept in the LRU of hot entries
+     * @throws IOException if the temporary files cannot be written or mapped, or the part cannot be parsed
+     */
+    public MappedSharedStringsTable(InputStream sharedStringsData, int cacheSize) throws IOException {
+        this(sharedStringsData, cacheSize, ConversionJob.unbounded());
+    }
+
+    /**
+     * Builds the table from the shared strings part of a workbook, checking the job while the strings are written.
+     *
+     * @param sharedStringsData the InputStream of {@code sharedStrings.xml}; it is read fully but not closed
+     * @param cacheSize the number of decoded strings kept in the LRU of hot entries
+     * @param job the job deciding when the conversion has to stop
+     * @throws IOException if the temporary files cannot be written or mapped, or the part cannot be parsed
+     * @throws java.util.concurrent.CancellationException if the job stopped the conversion, the temporary files being removed
+     */
+    public MappedSharedStringsTable(InputStream sharedStringsData, int cacheSize, ConversionJob job) throws IOException {
+        dataFile = Files.createTempFile("sharedStrings", ".dat");
+        indexFile = Files.createTempFile("sharedStrings", ".idx");
+        try {
+            SharedStringsWriter writer;
+            try (OutputStream data = new BufferedOutputStream(Files.newOutputStream(dataFile), 1 << 16);
+                 DataOutputStream index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16))) {
+                writer = new SharedStringsWriter(data, index, job);
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(writer);
+                xmlReader.parse(new InputSource(sharedStringsData));
+                // * Closing offset, so the length of the last string is known as well
+                index.writeLong(writer.offset);
+            }
+            this.uniqueCount = writer.uniqueCount;
+            this.count = writer.count > 0 ? writer.count : writer.uniqueCount;
+            this.dataSegments = map(dataFile);
+            this.indexSegments = map(indexFile);
+        } catch (SAXException | ParserConfigurationException e) {
+            deleteQuietly();
+            throw new IOException("UNABLE TO READ SHARED STRINGS TABLE", e);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly();
+            throw e;
+        }
+        this.hotEntries = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Resolves a shared string index as referenced by a cell of type {@code s}.
+     *
+     * @param idx the zero-based index of the shared string
+     * @return the plain text of the shared string
+     */
+    public synchronized String getString(int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new IndexOutOfBoundsException("SHARED STRING INDEX OUT OF RANGE: " + idx);
+        }
+        String value = hotEntries.get(idx);
+        if (value == null) {
+            long start = readOffset(idx);
+            byte[] bytes = new byte[(int) (readOffset(idx + 1) - start)];
+            int copied = 0;
+            while (copied < bytes.length) {
+                long position = start + copied;
+                MappedByteBuffer segment = dataSegments[(int) (position / SEGMENT_SIZE)];
+                int segmentOffset = (int) (position % SEGMENT_SIZE);
+                int length = Math.min(bytes.length - copied, segment.capacity() - segmentOffset);
+                segment.get(segmentOffset, bytes, copied, length);
+                copied += length;
+            }
+            value = new String(bytes, StandardCharsets.UTF_8);
+            hotEntries.put(idx, value);
+        }
+        return value;
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getString(idx));
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * Deletes the temporary files. The mappings themselves are released by the garbage collector.
+     */
+    @Override
+    public synchronized void close() {
+        hotEntries.clear();
+        deleteQuietly();
+    }
+
+    private long readOffset(int idx) {
+        long position = (long) idx * Long.BYTES;
+        return indexSegments[(int) (position / SEGMENT_SIZE)].getLong((int) (position % SEGMENT_SIZE));
+    }
+
+    private static MappedByteBuffer[] map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int segmentIndex = 0; segmentIndex < segments.length; segmentIndex++) {
+                long position = segmentIndex * SEGMENT_SIZE;
+                segments[segmentIndex] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+            }
+            return segments;
+        }
+    }
+
+    private void deleteQuietly() {
+        for (Path file : new Path[]{dataFile, indexFile}) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // * A file still mapped cannot be removed on every platform
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Streams every {@code <si>} item of the shared strings part into the data and index files.
+     * Phonetic runs ({@code <rPh>}) are left out, as in POI's read-only shared strings table.
+     */
+    private static final class SharedStringsWriter extends DefaultHandler {
+        private final OutputStream data;
+        private final DataOutputStream index;
+        private final ConversionJob job;
+        private final StringBuilder text = new StringBuilder();
+        private boolean isText;
+        private boolean isPhonetic;
+        private long offset;
+        private int uniqueCount;
+        private int count;
+
+        private SharedStringsWriter(OutputStream data, DataOutputStream index, ConversionJob job) {
+            this.data = data;
+            this.index = index;
+            this.job = job;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "sst":
+                    String countValue = attributes.getValue("count");
+                    if (countValue != null) count = Integer.parseInt(countValue);
+                    break;
+                case "si":
+                    text.setLength(0);
+                    break;
+                case "rPh":
+                    isPhonetic = true;
+                    break;
+                case "t":
+                    isText = !isPhonetic;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "si":
+                    byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                    try {
+                        index.writeLong(offset);
+                        data.write(bytes);
+                    } catch (IOException e) {
+                        throw new SAXException(e);
+                    }
+                    offset += bytes.length;
+                    if (++uniqueCount % CHECK_INTERVAL == 0) job.checkpoint();
+                    break;
+                case "rPh":
+                    isPhonetic = false;
+                    break;
+                case "t":
+                    isText = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (isText) text.append(ch, start, length);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.developer;
+
+/**
+ * Read-only view over the cells of a single spreadsheet row, independent of the engine that produced it.
+ * Values are only formatted when {@link #getValue(int)} is called, so cells nobody asks for are never
+ * turned into Strings.
+ */
+public interface RowCells {
+    /**
+     * @return one more than the index of the last cell in the row, same meaning as {@code Row.getLastCellNum()}
+     */
+    int getLastColumn();
+
+    /**
+     * @param columnIndex zero-based column index
+     * @return true if the row physically contains a cell at that column
+     */
+    boolean hasCell(int columnIndex);
+
+    /**
+     * @param columnIndex zero-based column index of an existing cell
+     * @return the cell value formatted the same way as {@link ExcelUtils#getCellValueasString}
+     */
+    String getValue(int columnIndex);
+}
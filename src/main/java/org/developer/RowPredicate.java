@@ -0,0 +1,111 @@
+package org.developer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A row filter condition of the configurable Excel, checked on one column of each row.
+ * Supported forms, several of them separated by ';' and all required to match:
+ * <ul>
+ *     <li>{@code Status = Active} - the trimmed cell value equals the text</li>
+ *     <li>{@code Email NOT EMPTY} - the cell exists and is not blank</li>
+ *     <li>{@code Region IN (EU|US)} - the trimmed cell value is one of the texts</li>
+ * </ul>
+ * The column is a header name of the first row or a column letter, see {@link ColumnReference}.
+ * A condition is split on its first operator, so {@code Title = Sign in (beta)} compares the title with
+ * {@code Sign in (beta)} and {@code Status = NOT EMPTY} with {@code NOT EMPTY}.
+ */
+public class RowPredicate {
+    private static final Pattern NOT_EMPTY = Pattern.compile("(?i)\\s+NOT\\s+EMPTY$");
+    private static final Pattern IN_SET = Pattern.compile("(?i)\\s+IN\\s*\\(");
+
+    private final String column;
+    private final Set<String> values;
+
+    private RowPredicate(String column, Set<String> values) {
+        this.column = column;
+        this.values = values;
+    }
+
+    /**
+     * Parses the row filter column of the configurable Excel.
+     *
+     * @param rowFilter the conditions separated by ';', may be null or empty
+     * @return the parsed conditions, empty if there is no filter
+     * @throws IllegalArgumentException if a condition does not match any supported form
+     */
+    public static List<RowPredicate> parse(String rowFilter) {
+        List<RowPredicate> predicates = new ArrayList<>();
+        if (rowFilter == null || rowFilter.trim().isEmpty()) {
+            return predicates;
+        }
+        for (String condition : rowFilter.split(";")) {
+            String trimmedCondition = condition.trim();
+            if (!trimmedCondition.isEmpty()) {
+                predicates.add(parseCondition(trimmedCondition));
+            }
+        }
+        return predicates;
+    }
+
+    /**
+     * Splits a condition on the operator found first: {@code =}, {@code IN (} or a trailing {@code NOT EMPTY}.
+     */
+    private static RowPredicate parseCondition(String condition) {
+        int equalsIndex = condition.indexOf('=');
+        Matcher inMatcher = IN_SET.matcher(condition);
+        int inIndex = inMatcher.find() ? inMatcher.start() : -1;
+        Matcher notEmptyMatcher = NOT_EMPTY.matcher(condition);
+        int notEmptyIndex = notEmptyMatcher.find() ? notEmptyMatcher.start() : -1;
+        int operatorIndex = firstIndex(firstIndex(equalsIndex, inIndex), notEmptyIndex);
+        String column = operatorIndex > 0 ? condition.substring(0, operatorIndex).trim() : "";
+        if (column.isEmpty()) {
+            throw new IllegalArgumentException("INVALID ROW FILTER: " + condition);
+        }
+        if (operatorIndex == equalsIndex) {
+            return new RowPredicate(column, Set.of(condition.substring(equalsIndex + 1).trim()));
+        }
+        if (operatorIndex == notEmptyIndex) {
+            return new RowPredicate(column, null);
+        }
+        String valueList = condition.substring(inMatcher.end()).trim();
+        if (!valueList.endsWith(")")) {
+            throw new IllegalArgumentException("INVALID ROW FILTER: " + condition);
+        }
+        Set<String> values = new HashSet<>();
+        Arrays.stream(valueList.substring(0, valueList.length() - 1).split("\\|")).forEach(value -> values.add(value.trim()));
+        return new RowPredicate(column, values);
+    }
+
+    /**
+     * @return the smaller of two indexes, -1 standing for not found
+     */
+    private static int firstIndex(int index, int otherIndex) {
+        if (index == -1) return otherIndex;
+        if (otherIndex == -1) return index;
+        return Math.min(index, otherIndex);
+    }
+
+    /**
+     * @return the header name or column letter the condition is checked on
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @param cellValue the trimmed cell value, an empty string if the cell does not exist
+     * @return true if the condition holds for the value
+     */
+    public boolean test(String cellValue) {
+        if (values == null) {
+            return !cellValue.isEmpty();
+        }
+        return values.contains(cellValue);
+    }
+}
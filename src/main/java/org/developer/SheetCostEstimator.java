@@ -0,0 +1,337 @@
+package org.developer;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Measures an XLSX workbook before it is extracted, without parsing any cell: the compressed and uncompressed
+ * sizes come from the zip directory, the rows and columns of each sheet from the {@code <dimension>} element at
+ * the top of its XML, and the shared string counts from the {@code <sst>} element.
+ * <p>
+ * From these figures it chooses the extraction engine of each sheet. The in-memory engine loads every sheet of
+ * the workbook, so it is only chosen when the whole workbook fits in the heap budget, and not for a sheet that
+ * is a small part of a large workbook, where streaming that sheet alone is cheaper. The number of CSV writer
+ * threads grows with the cells of the sheet, up to the available processors.
+ */
+public class SheetCostEstimator {
+    private static final Pattern DIMENSION = Pattern.compile("[A-Za-z]{1,3}\\d+(:[A-Za-z]{1,3}\\d+)?");
+    private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    // * Rough heap of an XSSFCell with its XMLBeans CTCell and value
+    private static final long CELL_HEAP_BYTES = 600;
+    // * Rough heap of the XMLBeans tree per byte of part XML
+    private static final long XML_HEAP_FACTOR = 8;
+    // * Rough size of a cell in sheet XML, used when the dimension is missing or understated
+    private static final long XML_BYTES_PER_CELL = 40;
+    private static final long SMALL_WORKBOOK_BYTES = 16L * 1024 * 1024;
+    private static final long CELLS_PER_WRITER_THREAD = 2_500_000;
+
+    private final long heapBudget;
+
+    /**
+     * Uses half of the maximum heap as the budget of the in-memory engine.
+     */
+    public SheetCostEstimator() {
+        this(Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * @param heapBudget the heap, in bytes, the in-memory engine may use to load a workbook
+     */
+    public SheetCostEstimator(long heapBudget) {
+        this.heapBudget = heapBudget;
+    }
+
+    /**
+     * Estimates the cost of every sheet of an XLSX workbook.
+     *
+     * @param excelName the filesystem path of the XLSX file, or the name of a resource within the classpath
+     * @return the estimate of the workbook and its sheets
+     * @throws IOException if the file cannot be found or is not a valid XLSX package
+     */
+    public WorkbookCostEstimate estimate(String excelName) throws IOException {
+        return estimate(excelName, ConversionJob.unbounded());
+    }
+
+    /**
+     * Estimates the cost of every sheet of an XLSX workbook, checking the job before each part is read.
+     *
+     * @param excelName the filesystem path of the XLSX file, or the name of a resource within the classpath
+     * @param job the job deciding when the conversion has to stop
+     * @return the estimate of the workbook and its sheets
+     * @throws IOException if the file cannot be found or is not a valid XLSX package
+     * @throws java.util.concurrent.CancellationException if the job stopped the conversion
+     */
+    public WorkbookCostEstimate estimate(String excelName, ConversionJob job) throws IOException {
+        ExcelUtils excelUtils = new ExcelUtils();
+        Path excelPath = excelUtils.toFilePath(excelName);
+        Path resourceCopy = null;
+        if (excelPath == null) {
+            // * The zip directory needs random access, a classpath resource is copied to a file first
+            resourceCopy = Files.createTempFile("estimate", ".xlsx");
+            try (InputStream resource = excelUtils.openInputStream(excelName)) {
+                Files.copy(resource, resourceCopy, StandardCopyOption.REPLACE_EXISTING);
+            }
+            excelPath = resourceCopy;
+        }
+        try (ZipFile zipFile = new ZipFile(excelPath.toFile())) {
+            return estimate(excelName, zipFile, job);
+        } catch (SAXException e) {
+            throw new IOException("UNABLE TO READ XLSX PACKAGE: " + excelName, e);
+        } finally {
+            if (resourceCopy != null) {
+                Files.deleteIfExists(resourceCopy);
+            }
+        }
+    }
+
+    private WorkbookCostEstimate estimate(String excelName, ZipFile zipFile, ConversionJob job) throws IOException, SAXException {
+        long compressedBytes = 0;
+        long uncompressedBytes = 0;
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            compressedBytes += Math.max(entry.getCompressedSize(), 0);
+            uncompressedBytes += Math.max(entry.getSize(), 0);
+        }
+        String workbookPart = "xl/workbook.xml";
+        for (String[] relationship : readRelationships(zipFile, "").values()) {
+            if (relationship[0].endsWith("/officeDocument")) workbookPart = relationship[1];
+        }
+        Map<String, String[]> workbookRelationships = readRelationships(zipFile, workbookPart);
+
+        long sharedStringCount = 0;
+        long uniqueSharedStringCount = 0;
+        long inMemoryHeapBytes = 0;
+        for (String[] relationship : workbookRelationships.values()) {
+            ZipEntry sharedStringsEntry = relationship[0].endsWith("/sharedStrings") ? zipFile.getEntry(relationship[1]) : null;
+            if (sharedStringsEntry != null) {
+                job.checkpoint();
+                SharedStringsCountHandler countHandler = new SharedStringsCountHandler();
+                try (InputStream sharedStringsData = zipFile.getInputStream(sharedStringsEntry)) {
+                    StreamingSheetReader.parse(sharedStringsData, countHandler);
+                }
+                sharedStringCount = countHandler.count;
+                uniqueSharedStringCount = countHandler.uniqueCount;
+                inMemoryHeapBytes += Math.max(sharedStringsEntry.getSize(), 0) * XML_HEAP_FACTOR;
+            }
+        }
+
+        WorkbookSheetsHandler sheetsHandler = new WorkbookSheetsHandler();
+        ZipEntry workbookEntry = zipFile.getEntry(workbookPart);
+        if (workbookEntry == null) {
+            throw new IOException("WORKBOOK PART NOT FOUND: " + workbookPart);
+        }
+        job.checkpoint();
+        try (InputStream workbookData = zipFile.getInputStream(workbookEntry)) {
+            StreamingSheetReader.parse(workbookData, sheetsHandler);
+        }
+        List<String> dimensions = new ArrayList<>();
+        List<ZipEntry> sheetEntries = new ArrayList<>();
+        long sheetsUncompressedBytes = 0;
+        for (int sheetIndex = 0; sheetIndex < sheetsHandler.sheetNames.size(); sheetIndex++) {
+            String[] relationship = workbookRelationships.get(sheetsHandler.relationshipIds.get(sheetIndex));
+            ZipEntry sheetEntry = relationship != null ? zipFile.getEntry(relationship[1]) : null;
+            String dimension = null;
+            if (sheetEntry != null) {
+                job.checkpoint();
+                DimensionHandler dimensionHandler = new DimensionHandler();
+                try (InputStream sheetData = zipFile.getInputStream(sheetEntry)) {
+                    StreamingSheetReader.parse(sheetData, dimensionHandler);
+                }
+                dimension = dimensionHandler.dimension;
+                sheetsUncompressedBytes += Math.max(sheetEntry.getSize(), 0);
+            }
+            dimensions.add(dimension);
+            sheetEntries.add(sheetEntry);
+            inMemoryHeapBytes += estimateHeap(dimension, sheetEntry);
+        }
+
+        List<WorkbookCostEstimate.SheetCost> sheets = new ArrayList<>();
+        for (int sheetIndex = 0; sheetIndex < sheetEntries.size(); sheetIndex++) {
+            ZipEntry sheetEntry = sheetEntries.get(sheetIndex);
+            String dimension = dimensions.get(sheetIndex);
+            long sheetUncompressedBytes = sheetEntry != null ? Math.max(sheetEntry.getSize(), 0) : 0;
+            long rows = -1;
+            long columns = -1;
+            if (dimension != null) {
+                int[] bounds = parseDimension(dimension);
+                rows = bounds[0] + 1L;
+                columns = bounds[1] + 1L;
+            }
+            ExtractionEngine engine = ExtractionEngine.IN_MEMORY;
+            if (inMemoryHeapBytes > heapBudget
+                    || (uncompressedBytes > SMALL_WORKBOOK_BYTES && sheetUncompressedBytes * 4 < sheetsUncompressedBytes)) {
+                engine = ExtractionEngine.STREAMING;
+            }
+            int writerThreads = (int) Math.min(Runtime.getRuntime().availableProcessors(),
+                    Math.max(1, (estimateCells(dimension, sheetEntry) + CELLS_PER_WRITER_THREAD - 1) / CELLS_PER_WRITER_THREAD));
+            sheets.add(new WorkbookCostEstimate.SheetCost(sheetsHandler.sheetNames.get(sheetIndex), dimension, rows, columns,
+                    sheetEntry != null ? Math.max(sheetEntry.getCompressedSize(), 0) : 0, sheetUncompressedBytes, engine, writerThreads));
+        }
+        return new WorkbookCostEstimate(excelName, compressedBytes, uncompressedBytes, sharedStringCount, uniqueSharedStringCount,
+                inMemoryHeapBytes, heapBudget, sheets);
+    }
+
+    /**
+     * @return the number of cells of the sheet, from its dimension unless the XML size shows more
+     */
+    private long estimateCells(String dimension, ZipEntry sheetEntry) {
+        long cells = 0;
+        if (dimension != null) {
+            int[] bounds = parseDimension(dimension);
+            cells = (bounds[0] + 1L) * (bounds[1] + 1L);
+        }
+        if (sheetEntry != null) {
+            cells = Math.max(cells, Math.max(sheetEntry.getSize(), 0) / XML_BYTES_PER_CELL);
+        }
+        return cells;
+    }
+
+    private long estimateHeap(String dimension, ZipEntry sheetEntry) {
+        long xmlHeap = sheetEntry != null ? Math.max(sheetEntry.getSize(), 0) * XML_HEAP_FACTOR : 0;
+        return Math.max(estimateCells(dimension, sheetEntry) * CELL_HEAP_BYTES, xmlHeap);
+    }
+
+    /**
+     * @param dimension a validated reference such as A1:H5000 or A1
+     * @return the zero-based last row and last column of the reference
+     */
+    private int[] parseDimension(String dimension) {
+        String lastCell = dimension.substring(dimension.indexOf(':') + 1);
+        int digitIndex = 0;
+        while (!Character.isDigit(lastCell.charAt(digitIndex))) digitIndex++;
+        int lastColumn = ColumnReference.toColumnIndex(lastCell.substring(0, digitIndex).toUpperCase());
+        int lastRow = Integer.parseInt(lastCell.substring(digitIndex)) - 1;
+        return new int[]{lastRow, lastColumn};
+    }
+
+    /**
+     * Reads the relationships of a part.
+     *
+     * @param zipFile the XLSX package
+     * @param partName the part, or an empty string for the package relationships
+     * @return the relationship ids mapped to their type and the zip entry name of their target
+     */
+    private Map<String, String[]> readRelationships(ZipFile zipFile, String partName) throws IOException, SAXException {
+        int folderEnd = partName.lastIndexOf('/') + 1;
+        String partFolder = partName.substring(0, folderEnd);
+        ZipEntry relationshipsEntry = zipFile.getEntry(partFolder + "_rels/" + partName.substring(folderEnd) + ".rels");
+        RelationshipsHandler relationshipsHandler = new RelationshipsHandler(partFolder);
+        if (relationshipsEntry != null) {
+            try (InputStream relationshipsData = zipFile.getInputStream(relationshipsEntry)) {
+                StreamingSheetReader.parse(relationshipsData, relationshipsHandler);
+            }
+        }
+        return relationshipsHandler.relationships;
+    }
+
+    /**
+     * Collects the {@code <Relationship>} elements of a relationships part.
+     */
+    private static final class RelationshipsHandler extends DefaultHandler {
+        private final String partFolder;
+        private final Map<String, String[]> relationships = new HashMap<>();
+
+        private RelationshipsHandler(String partFolder) {
+            this.partFolder = partFolder;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("Relationship".equals(localName) && !"External".equals(attributes.getValue("TargetMode"))) {
+                String target = attributes.getValue("Target");
+                target = target.startsWith("/") ? target.substring(1) : normalize(partFolder + target);
+                relationships.put(attributes.getValue("Id"), new String[]{attributes.getValue("Type"), target});
+            }
+        }
+
+        private static String normalize(String entryName) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : entryName.split("/")) {
+                if ("..".equals(segment) && !segments.isEmpty()) segments.remove(segments.size() - 1);
+                else if (!segment.isEmpty() && !".".equals(segment)) segments.add(segment);
+            }
+            return String.join("/", segments);
+        }
+    }
+
+    /**
+     * Collects the names and relationship ids of the {@code <sheet>} elements of {@code workbook.xml}.
+     */
+    private static final class WorkbookSheetsHandler extends DefaultHandler {
+        private final List<String> sheetNames = new ArrayList<>();
+        private final List<String> relationshipIds = new ArrayList<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("sheet".equals(localName)) {
+                sheetNames.add(attributes.getValue("name"));
+                relationshipIds.add(attributes.getValue(RELATIONSHIPS_NAMESPACE, "id"));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if ("sheets".equals(localName)) {
+                throw new StreamingSheetReader.StopParsingException();
+            }
+        }
+    }
+
+    /**
+     * Reads the {@code <dimension>} reference of a sheet and stops before its cells.
+     */
+    private static final class DimensionHandler extends DefaultHandler {
+        private String dimension;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("dimension".equals(localName)) {
+                String ref = attributes.getValue("ref");
+                if (ref != null && DIMENSION.matcher(ref.replace("$", "")).matches()) {
+                    dimension = ref.replace("$", "");
+                }
+                throw new StreamingSheetReader.StopParsingException();
+            }
+            if ("sheetData".equals(localName)) {
+                throw new StreamingSheetReader.StopParsingException();
+            }
+        }
+    }
+
+    /**
+     * Reads the {@code count} and {@code uniqueCount} attributes of {@code <sst>} and stops before the strings.
+     */
+    private static final class SharedStringsCountHandler extends DefaultHandler {
+        private long count;
+        private long uniqueCount;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("sst".equals(localName)) {
+                count = parseCount(attributes.getValue("count"));
+                uniqueCount = parseCount(attributes.getValue("uniqueCount"));
+                throw new StreamingSheetReader.StopParsingException();
+            }
+        }
+
+        private static long parseCount(String count) {
+            return count == null || !count.matches("\\d+") ? -1 : Long.parseLong(count);
+        }
+    }
+}
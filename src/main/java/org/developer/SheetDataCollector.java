@@ -0,0 +1,259 @@
+package org.developer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the row data of one sheet following the extraction rules of {@code Excel2CSV.queryExcelData}:
+ * rows from start row to end row (missing rows become empty lists), cells from start column up to the
+ * end column (missing cells are left out), and the end column derived from the first row when it is not given.
+ * The same collector is fed by the in-memory and the streaming engines so both produce identical output.
+ * <p>
+ * When the plan carries an explicit column list, only those columns are extracted, in the listed order,
+ * with an empty value for a missing cell. When it carries a row filter, rows failing it are dropped, except
+ * the first row of the sheet which holds the headers. Cells outside the columns and filter are never formatted.
+ */
+public class SheetDataCollector implements SheetRowHandler {
+    private final String sheetName;
+    private final int startRow;
+    private final int endRow;
+    private final int startColumn;
+    private final boolean isComment;
+    private final List<String> columnTokens;
+    private final List<RowPredicate> predicates;
+    private int endColumn;
+    private boolean isColumnResolved;
+    private boolean isSelectionResolved;
+    private int[] projectedColumns;
+    private int[] predicateColumns = new int[0];
+    // * Columns read in addition to (or, with a column list, instead of) the start to end column block
+    private boolean[] selectedColumnFlags = new boolean[0];
+    private int lastRowIndex = -1;
+    private int maxLastColumn = 0;
+    private int declaredColumnCount = 0;
+    private final List<List<String>> excelData = new ArrayList<>();
+    // * Column indices of the rows stored while the end column is still unknown, aligned with excelData
+    private final List<int[]> pendingColumns = new ArrayList<>();
+
+    /**
+     * @param plan the plan of the sheet, giving the start column, the comment column, the column list and the row filter
+     * @param startRow the first row to extract
+     * @param endRow the last row to extract, -1 to resolve it from the sheet content while rows are handled
+     * @param endColumn the last column of the block to extract, -1 to resolve it from the sheet content
+     */
+    public SheetDataCollector(SheetExecutionPlan plan, int startRow, int endRow, int endColumn) {
+        this.sheetName = plan.getParameters().getSheetName();
+        this.startRow = startRow;
+        this.endRow = endRow;
+        this.startColumn = plan.getParameters().getStartColumn();
+        this.isComment = plan.getParameters().isComment();
+        this.predicates = plan.getPredicates();
+        this.columnTokens = plan.getColumnTokens();
+        if (!columnTokens.isEmpty()) {
+            // * The column list decides the extracted columns, the end column is not derived
+            isColumnResolved = true;
+        } else if (endColumn != -1) {
+            resolveEndColumn(endColumn);
+        }
+        isSelectionResolved = columnTokens.isEmpty() && predicates.isEmpty();
+    }
+
+    @Override
+    public boolean acceptsCell(int rowIndex, int columnIndex) {
+        if (!isSelectionResolved || (!isColumnResolved && rowIndex == 0)) {
+            return true;
+        }
+        if (rowIndex < startRow || (endRow != -1 && rowIndex > endRow)) {
+            return false;
+        }
+        if (columnIndex < selectedColumnFlags.length && selectedColumnFlags[columnIndex]) {
+            return true;
+        }
+        return projectedColumns == null && columnIndex >= startColumn && (!isColumnResolved || columnIndex < endColumn);
+    }
+
+    @Override
+    public void handleDimension(int rowCount, int columnCount) {
+        declaredColumnCount = Math.max(declaredColumnCount, columnCount);
+    }
+
+    @Override
+    public void handleRow(int rowIndex, RowCells cells) {
+        lastRowIndex = rowIndex;
+        maxLastColumn = Math.max(maxLastColumn, cells.getLastColumn());
+        if (!isSelectionResolved) {
+            resolveSelection(rowIndex == 0 ? cells : null);
+        }
+        if (!isColumnResolved && rowIndex == 0) {
+            resolveEndColumn(getMaxColumn(cells) - 1);
+        }
+        if (rowIndex < startRow || (endRow != -1 && rowIndex > endRow)) {
+            return;
+        }
+        if (rowIndex != 0 && !matchesPredicates(cells)) {
+            return;
+        }
+        fillMissingRows(rowIndex - startRow);
+        List<String> rowData = new ArrayList<>();
+        if (projectedColumns != null) {
+            for (int cellIndex : projectedColumns) {
+                rowData.add(cells.hasCell(cellIndex) ? cells.getValue(cellIndex).trim() : "");
+            }
+            excelData.add(rowData);
+            pendingColumns.add(null);
+            return;
+        }
+        int lastColumn = isColumnResolved ? Math.min(endColumn, cells.getLastColumn()) : cells.getLastColumn();
+        int[] columns = isColumnResolved ? null : new int[Math.max(lastColumn - startColumn, 0)];
+        for (int cellIndex = startColumn; cellIndex < lastColumn; cellIndex++) {
+            if (cells.hasCell(cellIndex)) {
+                if (columns != null) columns[rowData.size()] = cellIndex;
+                rowData.add(cells.getValue(cellIndex).trim());
+            }
+        }
+        excelData.add(rowData);
+        pendingColumns.add(columns);
+    }
+
+    @Override
+    public boolean isFinished(int rowIndex) {
+        return isSelectionResolved && isColumnResolved && endRow != -1 && rowIndex >= endRow;
+    }
+
+    /**
+     * @return true while the header row is still needed to resolve the column list or the row filter;
+     *         an engine that only reads the requested rows must hand the first row of the sheet over first
+     */
+    public boolean needsHeaderRow() {
+        return !isSelectionResolved;
+    }
+
+    /**
+     * Completes the collected data once the whole sheet (or the needed part of it) has been handled.
+     *
+     * @return a list of lists, where each inner list represents a row of data from the sheet
+     */
+    public List<List<String>> getExcelData() {
+        fillMissingRows(getEndRow() - startRow + 1);
+        if (!isColumnResolved) {
+            // * The first row does not exist, so the widest row of the sheet decides the end column
+            resolveEndColumn(maxLastColumn - 1);
+            for (int rowIndex = 0; rowIndex < excelData.size(); rowIndex++) {
+                int[] columns = pendingColumns.get(rowIndex);
+                List<String> rowData = excelData.get(rowIndex);
+                if (columns != null) {
+                    int keep = 0;
+                    while (keep < rowData.size() && columns[keep] < endColumn) keep++;
+                    rowData.subList(keep, rowData.size()).clear();
+                }
+            }
+        }
+        pendingColumns.clear();
+        return excelData;
+    }
+
+    /**
+     * @return the last row index that was extracted, the last row of the sheet when no end row was given
+     */
+    public int getEndRow() {
+        return endRow == -1 ? lastRowIndex : endRow;
+    }
+
+    /**
+     * @return the exclusive end column that was applied, including the extra comment column
+     */
+    public int getEndColumn() {
+        return isColumnResolved ? endColumn : maxLastColumn - 1 + (isComment ? 1 : 0);
+    }
+
+    /**
+     * Resolves the column list and the row filter against the header row.
+     *
+     * @param headerRow the first row of the sheet, null if the sheet has none (only column letters can be used then)
+     * @throws IllegalArgumentException if a column of the column list or the row filter is unknown, with the sheet name
+     */
+    private void resolveSelection(RowCells headerRow) {
+        try {
+            resolveColumns(headerRow);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(sheetName + " " + e.getMessage(), e);
+        }
+    }
+
+    private void resolveColumns(RowCells headerRow) {
+        Map<String, Integer> headerColumns = new HashMap<>();
+        if (headerRow != null) {
+            for (int cellIndex = 0; cellIndex < headerRow.getLastColumn(); cellIndex++) {
+                if (headerRow.hasCell(cellIndex)) {
+                    headerColumns.putIfAbsent(headerRow.getValue(cellIndex).trim().toLowerCase(), cellIndex);
+                }
+            }
+        }
+        // * Column letters are accepted within the declared size of the sheet, or else the widest row seen so far
+        int columnCount = Math.max(declaredColumnCount, maxLastColumn);
+        int maxSelectedColumn = -1;
+        if (!columnTokens.isEmpty()) {
+            projectedColumns = new int[columnTokens.size()];
+            for (int tokenIndex = 0; tokenIndex < columnTokens.size(); tokenIndex++) {
+                projectedColumns[tokenIndex] = ColumnReference.resolve(columnTokens.get(tokenIndex), headerColumns, columnCount);
+                maxSelectedColumn = Math.max(maxSelectedColumn, projectedColumns[tokenIndex]);
+            }
+            endColumn = maxSelectedColumn + 1;
+        }
+        predicateColumns = new int[predicates.size()];
+        for (int predicateIndex = 0; predicateIndex < predicates.size(); predicateIndex++) {
+            predicateColumns[predicateIndex] = ColumnReference.resolve(predicates.get(predicateIndex).getColumn(), headerColumns, columnCount);
+            maxSelectedColumn = Math.max(maxSelectedColumn, predicateColumns[predicateIndex]);
+        }
+        selectedColumnFlags = new boolean[maxSelectedColumn + 1];
+        if (projectedColumns != null) {
+            for (int projectedColumn : projectedColumns) selectedColumnFlags[projectedColumn] = true;
+        }
+        for (int predicateColumn : predicateColumns) selectedColumnFlags[predicateColumn] = true;
+        isSelectionResolved = true;
+    }
+
+    private boolean matchesPredicates(RowCells cells) {
+        for (int predicateIndex = 0; predicateIndex < predicates.size(); predicateIndex++) {
+            int cellIndex = predicateColumns[predicateIndex];
+            String cellValue = cells.hasCell(cellIndex) ? cells.getValue(cellIndex).trim() : "";
+            if (!predicates.get(predicateIndex).test(cellValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resolveEndColumn(int lastColumn) {
+        endColumn = isComment ? lastColumn + 1 : lastColumn;
+        isColumnResolved = true;
+    }
+
+    /**
+     * Adds empty rows for the rows missing in the sheet. Not done with a row filter, an absent row never matches it.
+     */
+    private void fillMissingRows(int rowCount) {
+        if (!predicates.isEmpty()) {
+            return;
+        }
+        while (excelData.size() < rowCount) {
+            excelData.add(new ArrayList<>());
+            pendingColumns.add(null);
+        }
+    }
+
+    /**
+     * Same rule as {@link ExcelUtils#getMaxColumn} applied to the first row of the sheet.
+     */
+    private int getMaxColumn(RowCells firstRow) {
+        int maxCol = 0;
+        for (int cellIndex = 0; cellIndex < firstRow.getLastColumn(); cellIndex++) {
+            if (firstRow.hasCell(cellIndex) && !firstRow.getValue(cellIndex).trim().isEmpty()) {
+                maxCol = cellIndex + 1;
+            }
+        }
+        return maxCol;
+    }
+}
@@ -0,0 +1,144 @@
+package org.developer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything {@link Excel2CSV} needs to convert one row of the configurable Excel, resolved once before any
+ * sheet is read: the row ranges to extract, the parsed column list, row filter and CSV split, the extraction
+ * engine, the number of CSV writer threads and the delta key. A plan is immutable, so the extraction engines
+ * derive the bounds they discover (last row, end column) locally instead of writing them back to the
+ * configuration, and concurrent conversions never share mutable state.
+ */
+public final class SheetExecutionPlan {
+    private final ConfigurableExcel parameters;
+    private final List<RowRange> rowRanges;
+    private final List<String> columnTokens;
+    private final List<RowPredicate> predicates;
+    private final CsvSplit csvSplit;
+    private final ExtractionEngine engine;
+    private final int writerThreads;
+    private final String deltaKey;
+
+    /**
+     * Zero-based, inclusive rows of the sheet to extract.
+     */
+    public static final class RowRange {
+        private final int startRow;
+        private final int endRow;
+
+        /**
+         * @param startRow the first row to extract
+         * @param endRow the last row to extract, -1 for the last row of the sheet
+         */
+        public RowRange(int startRow, int endRow) {
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        public int getStartRow() {
+            return startRow;
+        }
+
+        public int getEndRow() {
+            return endRow;
+        }
+    }
+
+    private SheetExecutionPlan(ConfigurableExcel parameters, List<RowRange> rowRanges, List<String> columnTokens,
+                               List<RowPredicate> predicates, CsvSplit csvSplit, ExtractionEngine engine, int writerThreads,
+                               String deltaKey) {
+        this.parameters = parameters;
+        this.rowRanges = Collections.unmodifiableList(rowRanges);
+        this.columnTokens = Collections.unmodifiableList(columnTokens);
+        this.predicates = Collections.unmodifiableList(predicates);
+        this.csvSplit = csvSplit;
+        this.engine = engine;
+        this.writerThreads = writerThreads;
+        this.deltaKey = deltaKey;
+    }
+
+    /**
+     * Resolves a row of the configurable Excel into a plan.
+     * Without a sheet range the rows go from the start row to the end row, from the third row when the sheet is
+     * transposed; with a sheet range such as {@code 3, 10-15} each range is extracted in turn.
+     *
+     * @param parameters the configuration of the sheet
+     * @param engine the engine extracting the sheet when it is an XLSX sheet
+     * @param writerThreads the maximum number of threads writing the parts of a split CSV
+     * @return the plan
+     * @throws IllegalArgumentException if the sheet range, the row filter or the CSV split is invalid
+     */
+    public static SheetExecutionPlan of(ConfigurableExcel parameters, ExtractionEngine engine, int writerThreads) {
+        List<RowRange> rowRanges = new ArrayList<>();
+        String sheetRange = parameters.getSheetRange();
+        if (sheetRange == null || sheetRange.trim().isEmpty()) {
+            rowRanges.add(new RowRange(parameters.isTranspose() ? 2 : parameters.getStartRow(), parameters.getEndRow()));
+        } else {
+            for (String rangeIndex : sheetRange.split(",")) {
+                try {
+                    // * Ranges are written with one-based row numbers
+                    int startRow = Integer.parseInt(rangeIndex.split("-")[0].trim()) - 1;
+                    int endRow = rangeIndex.contains("-") ? Integer.parseInt(rangeIndex.split("-")[1].trim()) - 1 : startRow;
+                    rowRanges.add(new RowRange(startRow, endRow));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IllegalArgumentException("INVALID SHEET RANGE: " + sheetRange);
+                }
+            }
+        }
+        List<String> columnTokens = new ArrayList<>();
+        if (parameters.getColumnList() != null) {
+            for (String token : parameters.getColumnList().split(",")) {
+                if (!token.trim().isEmpty()) columnTokens.add(token.trim());
+            }
+        }
+        String deltaKey = parameters.getDeltaKey() == null || parameters.getDeltaKey().trim().isEmpty() ? null : parameters.getDeltaKey().trim();
+        return new SheetExecutionPlan(parameters, rowRanges, columnTokens, RowPredicate.parse(parameters.getRowFilter()),
+                CsvSplit.parse(parameters.getCsvSplit()), engine, Math.max(writerThreads, 1), deltaKey);
+    }
+
+    /**
+     * @return the configuration the plan was resolved from
+     */
+    public ConfigurableExcel getParameters() {
+        return parameters;
+    }
+
+    public List<RowRange> getRowRanges() {
+        return rowRanges;
+    }
+
+    /**
+     * @return the explicit columns to extract, header names or column letters; empty to extract a column block
+     */
+    public List<String> getColumnTokens() {
+        return columnTokens;
+    }
+
+    public List<RowPredicate> getPredicates() {
+        return predicates;
+    }
+
+    /**
+     * @return how the CSV output is split, null to write a single file
+     */
+    public CsvSplit getCsvSplit() {
+        return csvSplit;
+    }
+
+    public ExtractionEngine getEngine() {
+        return engine;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    /**
+     * @return the key column of the delta output, see {@link DeltaIndex}; null to write every row
+     */
+    public String getDeltaKey() {
+        return deltaKey;
+    }
+}
@@ -0,0 +1,67 @@
+package org.developer;
+
+/**
+ * Snapshot of the progress of one sheet within a {@link ConversionJob}.
+ */
+public class SheetProgress {
+    /**
+     * The step of the sheet conversion the row counts refer to.
+     */
+    public enum Phase {
+        EXTRACTING,
+        WRITING,
+        COMPLETED
+    }
+
+    private final String sheetName;
+    private final int sheetIndex;
+    private final int sheetCount;
+    private final Phase phase;
+    private final long rowsDone;
+    private final long estimatedRows;
+
+    public SheetProgress(String sheetName, int sheetIndex, int sheetCount, Phase phase, long rowsDone, long estimatedRows) {
+        this.sheetName = sheetName;
+        this.sheetIndex = sheetIndex;
+        this.sheetCount = sheetCount;
+        this.phase = phase;
+        this.rowsDone = rowsDone;
+        this.estimatedRows = estimatedRows;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return the zero-based position of the sheet in the configurable Excel
+     */
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public int getSheetCount() {
+        return sheetCount;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getRowsDone() {
+        return rowsDone;
+    }
+
+    /**
+     * @return the expected number of rows of the phase, -1 while it is not known
+     */
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    @Override
+    public String toString() {
+        return sheetName + " (" + (sheetIndex + 1) + "/" + sheetCount + ") " + phase + ": " + rowsDone
+                + (estimatedRows >= 0 ? "/" + estimatedRows : "") + " rows";
+    }
+}
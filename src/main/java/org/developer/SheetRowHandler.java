@@ -0,0 +1,39 @@
+package org.developer;
+
+/**
+ * Receives the rows of one sheet, in ascending row order, from an extraction engine.
+ */
+public interface SheetRowHandler {
+    /**
+     * Lets the engine skip reading and formatting cells that will never be used.
+     *
+     * @param rowIndex zero-based row index
+     * @param columnIndex zero-based column index
+     * @return true if the cell has to be available through {@link RowCells#getValue(int)}
+     */
+    boolean acceptsCell(int rowIndex, int columnIndex);
+
+    /**
+     * Called once for every row that physically exists in the sheet.
+     *
+     * @param rowIndex zero-based row index
+     * @param cells the cells of the row
+     */
+    void handleRow(int rowIndex, RowCells cells);
+
+    /**
+     * @param rowIndex zero-based index of the row that was just handled
+     * @return true if no later row is needed, so the engine may stop reading the sheet
+     */
+    boolean isFinished(int rowIndex);
+
+    /**
+     * Called before the first row when the size of the sheet is known: the {@code <dimension>} of an XLSX sheet,
+     * the {@code DIMENSIONS} record of an XLS sheet, or the rows and cells of a sheet loaded in memory.
+     *
+     * @param rowCount the number of rows the sheet declares, its last row index plus one
+     * @param columnCount the number of columns the sheet declares, its last column index plus one
+     */
+    default void handleDimension(int rowCount, int columnCount) {
+    }
+}
@@ -0,0 +1,484 @@
+package org.developer;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.SharedFormula;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming extraction engine for XLSX workbooks.
+ * The sheet XML is parsed with SAX and handed row by row to a {@link SheetRowHandler}, shared strings are
+ * resolved through a {@link MappedSharedStringsTable}, so neither the cells nor the strings of the workbook
+ * are materialized on the heap. Cells are formatted like {@link ExcelUtils#getCellValueasString}. A cell sharing
+ * the formula of another cell gets that formula shifted to its own position, as the loaded workbook does; when the
+ * formula cannot be parsed without the workbook, for example because it uses a defined name, its cached value is used.
+ */
+public class StreamingSheetReader {
+    private static final ThreadLocal<XMLReader> XML_READERS = new ThreadLocal<>();
+    private static final DefaultHandler NO_CONTENT = new DefaultHandler();
+
+    /**
+     * Opens the shared strings of a package once, so that every sheet and row range read from the package
+     * resolves its strings from the same memory-mapped table. The caller closes the table when it releases the package.
+     *
+     * @param excelPackage the opened XLSX package
+     * @return the shared strings of the workbook, null if the workbook has none
+     * @throws IOException if the shared strings cannot be read or mapped
+     */
+    public static MappedSharedStringsTable openSharedStrings(OPCPackage excelPackage) throws IOException {
+        return openSharedStrings(excelPackage, ConversionJob.unbounded());
+    }
+
+    /**
+     * Opens the shared strings of a package like {@link #openSharedStrings(OPCPackage)}, checking the job while they are written.
+     *
+     * @param excelPackage the opened XLSX package
+     * @param job the job deciding when the conversion has to stop
+     * @return the shared strings of the workbook, null if the workbook has none
+     * @throws IOException if the shared strings cannot be read or mapped
+     */
+    public static MappedSharedStringsTable openSharedStrings(OPCPackage excelPackage, ConversionJob job) throws IOException {
+        List<PackagePart> sharedStringsParts = excelPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (sharedStringsParts.isEmpty()) {
+            return null;
+        }
+        try (InputStream sharedStringsData = sharedStringsParts.get(0).getInputStream()) {
+            return new MappedSharedStringsTable(sharedStringsData, job);
+        }
+    }
+
+    /**
+     * Reads a sheet of the workbook and passes its rows to the handler.
+     *
+     * @param excelPackage the opened XLSX package
+     * @param sharedStrings the shared strings of the package from {@link #openSharedStrings}, null if it has none
+     * @param sheetName the sheet to read; ignored when the workbook has exactly one sheet, like {@link ExcelUtils#getSheet}
+     * @param handler the handler receiving the rows
+     * @throws IOException if the sheet does not exist or the package cannot be read
+     * @throws OpenXML4JException if the package structure is invalid
+     * @throws SAXException if the sheet XML cannot be parsed
+     */
+    public void readSheet(OPCPackage excelPackage, MappedSharedStringsTable sharedStrings, String sheetName, SheetRowHandler handler)
+            throws IOException, OpenXML4JException, SAXException {
+        XSSFReader reader = new XSSFReader(excelPackage);
+        List<String> sheetNames = getSheetNames(reader);
+        int sheetIndex = findSheetIndex(sheetNames, sheetName);
+        if (sheetIndex == -1) {
+            throw new IOException("SHEET DOES NOT EXIST: " + sheetName);
+        }
+        boolean isDate1904 = isDate1904(reader);
+        StylesTable stylesTable = reader.getStylesTable();
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        for (int index = 0; sheets.hasNext(); index++) {
+            try (InputStream sheetData = sheets.next()) {
+                if (index == sheetIndex) {
+                    SheetHandler sheetHandler = new SheetHandler(handler, sharedStrings, stylesTable, isDate1904, sheetNames, sheetIndex);
+                    try {
+                        parse(sheetData, sheetHandler);
+                    } finally {
+                        sheetHandler.close();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the names of the sheets of the workbook, in workbook order
+     */
+    private List<String> getSheetNames(XSSFReader reader) throws IOException, OpenXML4JException {
+        List<String> sheetNames = new ArrayList<>();
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            sheets.next().close();
+            sheetNames.add(sheets.getSheetName());
+        }
+        return sheetNames;
+    }
+
+    /**
+     * @return the position of the sheet to read, the only sheet of the workbook or the sheet matching the name; -1 if none
+     */
+    private int findSheetIndex(List<String> sheetNames, String sheetName) {
+        if (sheetNames.size() == 1) {
+            return 0;
+        }
+        for (int index = 0; index < sheetNames.size(); index++) {
+            if (sheetNames.get(index).equalsIgnoreCase(sheetName)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, SAXException {
+        WorkbookPropertiesHandler workbookHandler = new WorkbookPropertiesHandler();
+        try (InputStream workbookData = reader.getWorkbookData()) {
+            parse(workbookData, workbookHandler);
+        }
+        return workbookHandler.isDate1904;
+    }
+
+    /**
+     * Parses an XML part with a SAX handler, which may end parsing early with a {@link StopParsingException}.
+     * The XML reader is kept per thread and reused by the next part parsed on the same thread.
+     */
+    static void parse(InputStream xml, DefaultHandler contentHandler) throws IOException, SAXException {
+        // * Taken out of the cache while parsing, so a nested parse on the same thread creates its own reader
+        XMLReader xmlReader = XML_READERS.get();
+        XML_READERS.remove();
+        try {
+            if (xmlReader == null) {
+                xmlReader = XMLHelper.newXMLReader();
+            }
+            xmlReader.setContentHandler(contentHandler);
+            xmlReader.parse(new InputSource(xml));
+        } catch (StopParsingException e) {
+            // * The handler has read everything it needs
+        } catch (ParserConfigurationException e) {
+            throw new IOException("UNABLE TO CREATE XML PARSER", e);
+        } finally {
+            if (xmlReader != null) {
+                // * Does not keep the handler, and the rows it collected, reachable from the cache
+                xmlReader.setContentHandler(NO_CONTENT);
+                XML_READERS.set(xmlReader);
+            }
+        }
+    }
+
+    /**
+     * Thrown from a SAX handler to end parsing early.
+     */
+    static final class StopParsingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        StopParsingException() {
+            super("STOP PARSING");
+        }
+    }
+
+    /**
+     * Reads the {@code date1904} flag of {@code workbook.xml}.
+     */
+    private static final class WorkbookPropertiesHandler extends DefaultHandler {
+        private boolean isDate1904;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("workbookPr".equals(localName)) {
+                String date1904 = attributes.getValue("date1904");
+                isDate1904 = "1".equals(date1904) || "true".equalsIgnoreCase(date1904);
+                throw new StopParsingException();
+            }
+            if ("sheets".equals(localName)) {
+                throw new StopParsingException();
+            }
+        }
+    }
+
+    /**
+     * Turns the {@code <sheetData>} of a sheet into rows for the {@link SheetRowHandler}.
+     * Only the cells accepted by the handler are buffered; the others just advance the column count.
+     */
+    private static final class SheetHandler extends DefaultHandler implements RowCells {
+        private final SheetRowHandler handler;
+        private final MappedSharedStringsTable sharedStrings;
+        private final StylesTable stylesTable;
+        private final boolean isDate1904;
+        private final List<String> sheetNames;
+        private final int sheetIndex;
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+        // * Formula of the first cell of each shared formula group, with the top-left cell of its range
+        private final Map<String, SharedFormulaGroup> sharedFormulas = new HashMap<>();
+        // * Empty workbook with the same sheet names, only created to parse the first shared formula met
+        private XSSFWorkbook formulaWorkbook;
+        private XSSFEvaluationWorkbook evaluationWorkbook;
+
+        private int rowIndex = -1;
+        private int columnIndex;
+        private int lastColumn;
+        private boolean isCellAccepted;
+        private String cellType;
+        private int cellStyle;
+        private boolean hasFormula;
+        private boolean isSharedFormula;
+        private String sharedFormulaIndex;
+        private String sharedFormulaRange;
+        private StringBuilder text;
+        private boolean isPhonetic;
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder formula = new StringBuilder();
+
+        // * Accepted cells of the current row, ordered by column
+        private int cellCount;
+        private int[] columns = new int[16];
+        private String[] types = new String[16];
+        private int[] styles = new int[16];
+        private String[] values = new String[16];
+        private String[] formulas = new String[16];
+
+        private SheetHandler(SheetRowHandler handler, MappedSharedStringsTable sharedStrings, StylesTable stylesTable, boolean isDate1904,
+                             List<String> sheetNames, int sheetIndex) {
+            this.handler = handler;
+            this.sharedStrings = sharedStrings;
+            this.stylesTable = stylesTable;
+            this.isDate1904 = isDate1904;
+            this.sheetNames = sheetNames;
+            this.sheetIndex = sheetIndex;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "dimension":
+                    String dimensionReference = attributes.getValue("ref");
+                    if (dimensionReference != null && !dimensionReference.isEmpty()) {
+                        CellRangeAddress dimension = CellRangeAddress.valueOf(dimensionReference);
+                        handler.handleDimension(dimension.getLastRow() + 1, dimension.getLastColumn() + 1);
+                    }
+                    break;
+                case "row":
+                    String rowReference = attributes.getValue("r");
+                    rowIndex = rowReference != null ? Integer.parseInt(rowReference) - 1 : rowIndex + 1;
+                    columnIndex = -1;
+                    lastColumn = -1;
+                    cellCount = 0;
+                    break;
+                case "c":
+                    String cellReference = attributes.getValue("r");
+                    columnIndex = cellReference != null ? parseColumn(cellReference) : columnIndex + 1;
+                    lastColumn = columnIndex + 1;
+                    isCellAccepted = handler.acceptsCell(rowIndex, columnIndex);
+                    if (isCellAccepted) {
+                        cellType = attributes.getValue("t");
+                        String styleReference = attributes.getValue("s");
+                        cellStyle = styleReference != null ? Integer.parseInt(styleReference) : 0;
+                        hasFormula = false;
+                        isSharedFormula = false;
+                        value.setLength(0);
+                        formula.setLength(0);
+                    }
+                    break;
+                case "v":
+                    if (isCellAccepted) text = value;
+                    break;
+                case "f":
+                    isSharedFormula = "shared".equals(attributes.getValue("t"));
+                    sharedFormulaIndex = attributes.getValue("si");
+                    sharedFormulaRange = attributes.getValue("ref");
+                    // * The first cell of a shared formula group is read even outside the extracted rows, the later cells need it
+                    if (isCellAccepted || (isSharedFormula && sharedFormulaRange != null)) {
+                        hasFormula = true;
+                        formula.setLength(0);
+                        text = formula;
+                    }
+                    break;
+                case "t":
+                    // * Text of an inline string, possibly split into rich text runs
+                    if (isCellAccepted && !isPhonetic) text = value;
+                    break;
+                case "rPh":
+                    isPhonetic = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "f":
+                    if (isSharedFormula && sharedFormulaRange != null && sharedFormulaIndex != null) {
+                        CellRangeAddress range = CellRangeAddress.valueOf(sharedFormulaRange);
+                        sharedFormulas.put(sharedFormulaIndex, new SharedFormulaGroup(formula.toString(), range.getFirstRow(), range.getFirstColumn()));
+                    }
+                    text = null;
+                    break;
+                case "v":
+                case "t":
+                    text = null;
+                    break;
+                case "rPh":
+                    isPhonetic = false;
+                    break;
+                case "c":
+                    if (isCellAccepted) addCell();
+                    break;
+                case "row":
+                    handler.handleRow(rowIndex, this);
+                    if (handler.isFinished(rowIndex)) {
+                        throw new StopParsingException();
+                    }
+                    break;
+                case "sheetData":
+                    throw new StopParsingException();
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (text != null) text.append(ch, start, length);
+        }
+
+        private void addCell() {
+            if (cellCount == columns.length) {
+                int capacity = cellCount * 2;
+                columns = Arrays.copyOf(columns, capacity);
+                types = Arrays.copyOf(types, capacity);
+                styles = Arrays.copyOf(styles, capacity);
+                values = Arrays.copyOf(values, capacity);
+                formulas = Arrays.copyOf(formulas, capacity);
+            }
+            columns[cellCount] = columnIndex;
+            types[cellCount] = cellType;
+            styles[cellCount] = cellStyle;
+            values[cellCount] = value.toString();
+            formulas[cellCount] = hasFormula ? getFormula() : null;
+            cellCount++;
+        }
+
+        /**
+         * @return the formula of the current cell, null if a shared formula cannot be translated and the cached value is used
+         */
+        private String getFormula() {
+            // * The first cell of a shared formula group holds the formula text itself
+            if (!isSharedFormula || sharedFormulaIndex == null || formula.length() > 0) {
+                return formula.toString();
+            }
+            SharedFormulaGroup group = sharedFormulas.get(sharedFormulaIndex);
+            if (group == null) {
+                return null;
+            }
+            try {
+                if (evaluationWorkbook == null) {
+                    formulaWorkbook = new XSSFWorkbook();
+                    for (String name : sheetNames) {
+                        formulaWorkbook.createSheet(name);
+                    }
+                    evaluationWorkbook = XSSFEvaluationWorkbook.create(formulaWorkbook);
+                }
+                // * Same translation as XSSFCell for a cell of a shared formula group
+                Ptg[] tokens = FormulaParser.parse(group.formula, evaluationWorkbook, FormulaType.CELL, sheetIndex, rowIndex);
+                Ptg[] shiftedTokens = new SharedFormula(SpreadsheetVersion.EXCEL2007)
+                        .convertSharedFormulas(tokens, rowIndex - group.firstRow, columnIndex - group.firstColumn);
+                return FormulaRenderer.toFormulaString(evaluationWorkbook, shiftedTokens);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private void close() throws IOException {
+            if (formulaWorkbook != null) {
+                formulaWorkbook.close();
+            }
+        }
+
+        @Override
+        public int getLastColumn() {
+            return lastColumn;
+        }
+
+        @Override
+        public boolean hasCell(int columnIndex) {
+            return Arrays.binarySearch(columns, 0, cellCount, columnIndex) >= 0;
+        }
+
+        @Override
+        public String getValue(int columnIndex) {
+            int slot = Arrays.binarySearch(columns, 0, cellCount, columnIndex);
+            if (slot < 0) {
+                return "";
+            }
+            if (formulas[slot] != null) {
+                return formulas[slot];
+            }
+            String rawValue = values[slot];
+            String type = types[slot];
+            if ("s".equals(type)) {
+                return sharedStrings != null && !rawValue.isEmpty() ? sharedStrings.getString(Integer.parseInt(rawValue.trim())) : "";
+            }
+            if ("inlineStr".equals(type) || "str".equals(type)) {
+                return rawValue;
+            }
+            if ("b".equals(type)) {
+                return String.valueOf("1".equals(rawValue.trim()) || "true".equalsIgnoreCase(rawValue.trim()));
+            }
+            if ("e".equals(type) || rawValue.isEmpty()) {
+                return "";
+            }
+            double numericValue = Double.parseDouble(rawValue);
+            if (isDateFormatted(styles[slot]) && DateUtil.isValidExcelDate(numericValue)) {
+                return DateUtil.getJavaDate(numericValue, isDate1904).toString();
+            }
+            return String.valueOf((int) numericValue);
+        }
+
+        private boolean isDateFormatted(int styleIndex) {
+            if (stylesTable == null) {
+                return false;
+            }
+            return dateStyles.computeIfAbsent(styleIndex, index -> {
+                XSSFCellStyle style = index < stylesTable.getNumCellStyles() ? stylesTable.getStyleAt(index) : null;
+                return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            });
+        }
+
+        private static final class SharedFormulaGroup {
+            private final String formula;
+            private final int firstRow;
+            private final int firstColumn;
+
+            private SharedFormulaGroup(String formula, int firstRow, int firstColumn) {
+                this.formula = formula;
+                this.firstRow = firstRow;
+                this.firstColumn = firstColumn;
+            }
+        }
+
+        /**
+         * @param cellReference an A1 style reference such as {@code AB12}
+         * @return the zero-based column index of the reference
+         */
+        private static int parseColumn(String cellReference) {
+            int column = 0;
+            for (int index = 0; index < cellReference.length(); index++) {
+                char character = cellReference.charAt(index);
+                if (character < 'A' || character > 'Z') break;
+                column = column * 26 + (character - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
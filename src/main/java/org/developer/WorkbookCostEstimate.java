@@ -0,0 +1,181 @@
+package org.developer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Size of an XLSX workbook and of each of its sheets as measured by {@link SheetCostEstimator}, with the
+ * extraction engine and the number of CSV writer threads chosen for each sheet.
+ */
+public class WorkbookCostEstimate {
+    private final String excelName;
+    private final long compressedBytes;
+    private final long uncompressedBytes;
+    private final long sharedStringCount;
+    private final long uniqueSharedStringCount;
+    private final long inMemoryHeapBytes;
+    private final long heapBudget;
+    private final List<SheetCost> sheets;
+
+    /**
+     * Estimated cost of extracting one sheet.
+     */
+    public static class SheetCost {
+        private final String sheetName;
+        private final String dimension;
+        private final long rows;
+        private final long columns;
+        private final long compressedBytes;
+        private final long uncompressedBytes;
+        private final ExtractionEngine engine;
+        private final int writerThreads;
+
+        public SheetCost(String sheetName, String dimension, long rows, long columns, long compressedBytes, long uncompressedBytes,
+                         ExtractionEngine engine, int writerThreads) {
+            this.sheetName = sheetName;
+            this.dimension = dimension;
+            this.rows = rows;
+            this.columns = columns;
+            this.compressedBytes = compressedBytes;
+            this.uncompressedBytes = uncompressedBytes;
+            this.engine = engine;
+            this.writerThreads = writerThreads;
+        }
+
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        /**
+         * @return the {@code <dimension>} reference of the sheet, for example A1:H5000, null if the sheet has none
+         */
+        public String getDimension() {
+            return dimension;
+        }
+
+        /**
+         * @return the number of rows from the dimension, -1 if the sheet has none
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return the number of columns from the dimension, -1 if the sheet has none
+         */
+        public long getColumns() {
+            return columns;
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes;
+        }
+
+        public long getUncompressedBytes() {
+            return uncompressedBytes;
+        }
+
+        public ExtractionEngine getEngine() {
+            return engine;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+    }
+
+    public WorkbookCostEstimate(String excelName, long compressedBytes, long uncompressedBytes, long sharedStringCount,
+                                long uniqueSharedStringCount, long inMemoryHeapBytes, long heapBudget, List<SheetCost> sheets) {
+        this.excelName = excelName;
+        this.compressedBytes = compressedBytes;
+        this.uncompressedBytes = uncompressedBytes;
+        this.sharedStringCount = sharedStringCount;
+        this.uniqueSharedStringCount = uniqueSharedStringCount;
+        this.inMemoryHeapBytes = inMemoryHeapBytes;
+        this.heapBudget = heapBudget;
+        this.sheets = new ArrayList<>(sheets);
+    }
+
+    /**
+     * Finds a sheet the way the extraction engines do: the only sheet of the workbook, or the sheet matching the name.
+     *
+     * @param sheetName the name of the sheet
+     * @return the cost of the sheet, null if the workbook has no such sheet
+     */
+    public SheetCost getSheet(String sheetName) {
+        if (sheets.size() == 1) {
+            return sheets.get(0);
+        }
+        for (SheetCost sheet : sheets) {
+            if (sheet.getSheetName().equalsIgnoreCase(sheetName)) {
+                return sheet;
+            }
+        }
+        return null;
+    }
+
+    public List<SheetCost> getSheets() {
+        return new ArrayList<>(sheets);
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    public long getSharedStringCount() {
+        return sharedStringCount;
+    }
+
+    public long getUniqueSharedStringCount() {
+        return uniqueSharedStringCount;
+    }
+
+    /**
+     * @return the estimated heap needed to load the whole workbook as an {@code XSSFWorkbook}
+     */
+    public long getInMemoryHeapBytes() {
+        return inMemoryHeapBytes;
+    }
+
+    /**
+     * Formats the estimate as a report of one line per sheet, preceded by the workbook totals. The lines are
+     * separated by {@code \n} on every platform, like the error messages of the converter.
+     *
+     * @param sheetNames the sheets to report, all the sheets of the workbook if null
+     * @return the report
+     */
+    public String report(List<String> sheetNames) {
+        StringBuilder report = new StringBuilder();
+        report.append("Workbook: ").append(excelName)
+                .append(" compressed: ").append(compressedBytes)
+                .append(" uncompressed: ").append(uncompressedBytes)
+                .append(" shared strings: ").append(sharedStringCount).append(" (").append(uniqueSharedStringCount).append(" unique)")
+                .append(" in-memory heap: ").append(inMemoryHeapBytes).append(" of budget ").append(heapBudget);
+        List<String> reportedSheets = new ArrayList<>();
+        if (sheetNames == null) {
+            for (SheetCost sheet : sheets) reportedSheets.add(sheet.getSheetName());
+        } else {
+            reportedSheets.addAll(sheetNames);
+        }
+        for (String sheetName : reportedSheets) {
+            SheetCost sheet = getSheet(sheetName);
+            if (sheet == null) {
+                report.append("\nSheet: ").append(sheetName).append(" DOES NOT EXIST");
+                continue;
+            }
+            report.append("\nSheet: ").append(sheet.getSheetName())
+                    .append(" dimension: ").append(sheet.getDimension() != null ? sheet.getDimension() : "none")
+                    .append(" rows: ").append(sheet.getRows() >= 0 ? String.valueOf(sheet.getRows()) : "unknown")
+                    .append(" columns: ").append(sheet.getColumns() >= 0 ? String.valueOf(sheet.getColumns()) : "unknown")
+                    .append(" compressed: ").append(sheet.getCompressedBytes())
+                    .append(" uncompressed: ").append(sheet.getUncompressedBytes())
+                    .append(" engine: ").append(sheet.getEngine())
+                    .append(" writer threads: ").append(sheet.getWriterThreads());
+        }
+        return report.toString();
+    }
+}
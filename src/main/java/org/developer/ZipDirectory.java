@@ -7,10 +7,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 public class ZipDirectory {
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
 
     /**
      * Creates a temporary directory with the specified prefix and returns its absolute path.
@@ -41,13 +45,24 @@ public class ZipDirectory {
      * @throws IOException if an I/O error occurs or the temporary-file directory does not exist
      */
     public void zipFolder (String sourceFolder, String destinationFolder) throws IOException {
+        zipFolder(sourceFolder, destinationFolder, ConversionJob.unbounded());
+    }
+
+    /**
+     *
+     * @param sourceFolder is used to store the path of files (or folders) for which zip folder is created
+     * @param destinationFolder is used to store the path where zip file need to be created
+     * @param job is checked before each file is added, so a cancelled or timed out run stops zipping
+     * @throws IOException if an I/O error occurs or the temporary-file directory does not exist
+     */
+    public void zipFolder (String sourceFolder, String destinationFolder, ConversionJob job) throws IOException {
         try (FileOutputStream fileOut = new FileOutputStream(destinationFolder);
         ZipOutputStream zipOut = new ZipOutputStream(fileOut)) {
             File fileToZip = new File(sourceFolder);
-            File[] subFolder = fileToZip.listFiles();
+            File[] subFolder = sortedFiles(fileToZip);
             if (subFolder != null) {
                 for (File childFolder : subFolder){
-                    createZipFile(childFolder, childFolder.getName(), zipOut);
+                    createZipFile(childFolder, childFolder.getName(), zipOut, job);
                 }
             }
         }
@@ -63,30 +78,32 @@ public class ZipDirectory {
      * @param fileToZip the file or directory to add to the ZIP output stream
      * @param fileName the name to use for the file or directory within the ZIP archive
      * @param zipOut the ZIP output stream to write the file or directory to
+     * @param job the job checked before the file is added
      * @throws IOException if an I/O error occurs during reading the file or writing to the ZIP output stream
      */
-    private void createZipFile (File fileToZip, String fileName, ZipOutputStream zipOut) throws IOException {
+    private void createZipFile (File fileToZip, String fileName, ZipOutputStream zipOut, ConversionJob job) throws IOException {
+        job.checkpoint();
         if (fileToZip.isHidden()) {
             return;
         }
         if (fileToZip.isDirectory()) {
             if (fileName.endsWith("/")) {
-                zipOut.putNextEntry(new ZipEntry(fileName));
+                zipOut.putNextEntry(createZipEntry(fileName));
                 zipOut.closeEntry();
             }else{
-                zipOut.putNextEntry(new ZipEntry(fileName + "/"));
+                zipOut.putNextEntry(createZipEntry(fileName + "/"));
                 zipOut.closeEntry();
             }
-            File[] children = fileToZip.listFiles();
+            File[] children = sortedFiles(fileToZip);
             if (children != null) {
                 for (File childFile : children) {
-                    createZipFile(childFile, fileName + "/" + childFile.getName(), zipOut);
+                    createZipFile(childFile, fileName + "/" + childFile.getName(), zipOut, job);
                 }
             }
             return;
         }
         FileInputStream file = new FileInputStream(fileToZip);
-        ZipEntry zipEntry = new ZipEntry(fileName);
+        ZipEntry zipEntry = createZipEntry(fileName);
         zipOut.putNextEntry(zipEntry);
         byte[] bytes = new byte[1024];
         int length;
@@ -95,4 +112,31 @@ public class ZipDirectory {
         }
         file.close();
     }
+
+    /**
+     * Lists the children of a folder in name order, so the same files always give the same ZIP.
+     *
+     * @param folder the folder to list
+     * @return the sorted children, or null if the folder cannot be listed
+     */
+    private File[] sortedFiles (File folder) {
+        File[] children = folder.listFiles();
+        if (children != null) {
+            Arrays.sort(children, Comparator.comparing(File::getName));
+        }
+        return children;
+    }
+
+    /**
+     * Creates an entry with a fixed modification time, so a resumed run, whose files were written at
+     * different times, gives the same ZIP as an uninterrupted one.
+     *
+     * @param fileName the name of the entry within the ZIP archive
+     * @return the entry
+     */
+    private ZipEntry createZipEntry (String fileName) {
+        ZipEntry zipEntry = new ZipEntry(fileName);
+        zipEntry.setTimeLocal(ENTRY_TIME);
+        return zipEntry;
+    }
 }
\ No newline at end of file
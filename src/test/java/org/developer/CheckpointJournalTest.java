@@ -0,0 +1,105 @@
+package org.developer;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A resumable run interrupted after its first sheet skips that sheet when it is run again into the same ZIP file.
+ */
+class CheckpointJournalTest {
+    @TempDir
+    Path tempFolder;
+    private Path configFile;
+    private Path inputFile;
+
+    @BeforeEach
+    void writeWorkbooks() throws IOException {
+        configFile = tempFolder.resolve("config.xlsx");
+        TestWorkbooks.writeConfig(configFile, List.of(
+                new String[]{"Data", "out/data.csv", "false", "true", null, "false"},
+                new String[]{"Other", "out/other.csv", "false", "true", null, "false"}));
+        inputFile = tempFolder.resolve("input.xlsx");
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        TestWorkbooks.fillData(workbook);
+        TestWorkbooks.write(workbook, inputFile);
+    }
+
+    @Test
+    void resumedRunSkipsCompletedSheetsAndWritesTheSameZip() throws Exception {
+        Excel2CSV excel2CSV = new Excel2CSV();
+        Path workFolder = tempFolder.resolve("work");
+        Path resumedZip = tempFolder.resolve("resumed.zip");
+
+        interruptAfterFirstSheet(excel2CSV, workFolder, resumedZip);
+        assertFalse(Files.exists(resumedZip));
+
+        List<SheetProgress> progressList = new ArrayList<>();
+        excel2CSV.excel2CSVResumable(configFile.toString(), inputFile.toString(), workFolder.toString(), resumedZip.toString(),
+                new ConversionJob(null, null, progressList::add));
+
+        assertTrue(progressList.stream().noneMatch(progress -> progress.getSheetIndex() == 0
+                && progress.getPhase() == SheetProgress.Phase.WRITING));
+        assertTrue(progressList.stream().anyMatch(progress -> progress.getSheetIndex() == 1
+                && progress.getPhase() == SheetProgress.Phase.WRITING));
+        Path uninterruptedZip = tempFolder.resolve("uninterrupted.zip");
+        excel2CSV.excel2CSVResumable(configFile.toString(), inputFile.toString(), tempFolder.resolve("work2").toString(),
+                uninterruptedZip.toString(), ConversionJob.unbounded());
+        assertArrayEquals(Files.readAllBytes(uninterruptedZip), Files.readAllBytes(resumedZip));
+    }
+
+    @Test
+    void runsIntoDifferentZipFilesKeepSeparateWork() throws Exception {
+        Excel2CSV excel2CSV = new Excel2CSV();
+        Path workFolder = tempFolder.resolve("work");
+        Path firstZip = tempFolder.resolve("first.zip");
+        Path secondZip = tempFolder.resolve("second.zip");
+
+        interruptAfterFirstSheet(excel2CSV, workFolder, firstZip);
+        List<SheetProgress> progressList = new ArrayList<>();
+        excel2CSV.excel2CSVResumable(configFile.toString(), inputFile.toString(), workFolder.toString(), secondZip.toString(),
+                new ConversionJob(null, null, progressList::add));
+
+        // * The second run converted the first sheet again and removed only its own work
+        assertTrue(progressList.stream().anyMatch(progress -> progress.getSheetIndex() == 0
+                && progress.getPhase() == SheetProgress.Phase.WRITING));
+        try (Stream<Path> runFolders = Files.list(workFolder)) {
+            assertEquals(1, runFolders.count());
+        }
+        excel2CSV.excel2CSVResumable(configFile.toString(), inputFile.toString(), workFolder.toString(), firstZip.toString(),
+                ConversionJob.unbounded());
+        assertArrayEquals(Files.readAllBytes(secondZip), Files.readAllBytes(firstZip));
+        try (Stream<Path> runFolders = Files.list(workFolder)) {
+            assertEquals(0, runFolders.count());
+        }
+    }
+
+    /**
+     * Runs the conversion into the ZIP file and cancels it as soon as the second sheet starts.
+     */
+    private void interruptAfterFirstSheet(Excel2CSV excel2CSV, Path workFolder, Path zipFile) {
+        ConversionJob[] interruptedJob = new ConversionJob[1];
+        interruptedJob[0] = new ConversionJob(null, null, progress -> {
+            if (progress.getSheetIndex() == 1) {
+                interruptedJob[0].cancel();
+            }
+        });
+        assertThrows(CancellationException.class, () -> excel2CSV.excel2CSVResumable(configFile.toString(), inputFile.toString(),
+                workFolder.toString(), zipFile.toString(), interruptedJob[0]));
+    }
+}
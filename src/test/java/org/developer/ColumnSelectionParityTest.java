@@ -0,0 +1,94 @@
+package org.developer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The column list and the row filter select the same cells and rows with every engine.
+ */
+class ColumnSelectionParityTest {
+    @TempDir
+    Path tempFolder;
+    private Path xlsxFile;
+    private Path xlsFile;
+
+    @BeforeEach
+    void writeWorkbooks() throws Exception {
+        xlsxFile = tempFolder.resolve("data.xlsx");
+        xlsFile = tempFolder.resolve("data.xls");
+        TestWorkbooks.writeDataXlsx(xlsxFile);
+        TestWorkbooks.writeDataXls(xlsFile);
+    }
+
+    @Test
+    void columnListAndRowFilterSelectTheSameCells() {
+        List<List<String>> rows = queryWithEveryEngine(select(false, "Comment, Id, Name", "Flag = true"));
+
+        // * The header row is kept although it fails the filter
+        assertEquals(List.of(
+                List.of("Comment", "Id", "Name"),
+                List.of("Note 2", "R2", "Alice"),
+                List.of("Note 4", "R4", "Alice")), rows);
+    }
+
+    @Test
+    void missingCellOfAListedColumnIsEmpty() {
+        List<List<String>> rows = queryWithEveryEngine(select(false, "Id, Name", ""));
+
+        assertEquals(6, rows.size());
+        assertEquals(List.of("R3", ""), rows.get(3));
+    }
+
+    @Test
+    void rowFilterSkipsRowsWithoutTheCell() {
+        List<List<String>> rows = queryWithEveryEngine(select(false, "A, B", "Name NOT EMPTY; Id IN (R1|R3|R5)"));
+
+        assertEquals(List.of(
+                List.of("Id", "Name"),
+                List.of("R1", "Bob, \"B\""),
+                List.of("R5", "Bob, \"B\"")), rows);
+    }
+
+    @Test
+    void transposedSheetResolvesTheHeaderRowOutsideItsRange() {
+        // * A transposed sheet starts at its third row, the header row is still read to resolve the names
+        List<List<String>> rows = queryWithEveryEngine(select(true, "Id, Flag", "Flag = true"));
+
+        assertEquals(List.of(List.of("R2", "true"), List.of("R4", "true")), rows);
+    }
+
+    @Test
+    void unknownColumnIsAnErrorNamingTheSheet() {
+        for (ExtractionEngine engine : ExtractionEngine.values()) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> new Excel2CSV(engine).queryExcelData(xlsxFile.toString(), select(false, "Id, Nme", "")));
+            assertTrue(error.getMessage().startsWith("Data "), error.getMessage());
+            assertTrue(error.getMessage().endsWith(": Nme"), error.getMessage());
+        }
+        // * Lower-case letters and letters beyond the last column are not column letters
+        assertThrows(IllegalArgumentException.class, () -> new Excel2CSV().queryExcelData(xlsFile.toString(), select(false, "a", "")));
+        assertThrows(IllegalArgumentException.class, () -> new Excel2CSV().queryExcelData(xlsFile.toString(), select(false, "", "H = x")));
+    }
+
+    private ConfigurableExcel select(boolean isTranspose, String columnList, String rowFilter) {
+        return new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", isTranspose, true, null, false, columnList, rowFilter, null);
+    }
+
+    /**
+     * @return the rows of the in-memory engine, after checking that the streaming and XLS engines extract the same
+     */
+    private List<List<String>> queryWithEveryEngine(ConfigurableExcel parameters) {
+        List<List<String>> inMemoryRows = new Excel2CSV(ExtractionEngine.IN_MEMORY).queryExcelData(xlsxFile.toString(), parameters);
+        assertEquals(inMemoryRows, new Excel2CSV(ExtractionEngine.STREAMING).queryExcelData(xlsxFile.toString(), parameters));
+        assertEquals(inMemoryRows, new Excel2CSV().queryExcelData(xlsFile.toString(), parameters));
+        return inMemoryRows;
+    }
+}
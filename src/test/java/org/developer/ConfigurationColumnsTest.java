@@ -0,0 +1,48 @@
+package org.developer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The columns of the configurable Excel keep their meaning when optional cells are blank or left out.
+ */
+class ConfigurationColumnsTest {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    void blankMiddleColumnKeepsTheLaterColumns() throws Exception {
+        Path configFile = tempFolder.resolve("config.xlsx");
+        TestWorkbooks.writeConfig(configFile, List.of(
+                // * Blank sheet range and delete, then a column list, no row filter and a CSV split
+                new String[]{"Data", "out/data.csv", "false", "true", null, null, "Id, Name", null, "rows:2", "Id"},
+                // * Older layout, the row stops after the delete column
+                new String[]{"Other", "out/other.csv", "false", "false", "2-3", "true"}));
+        Excel2CSV excel2CSV = new Excel2CSV();
+
+        List<ConfigurableExcel> configList = excel2CSV.fillSheetParameter(excel2CSV.queryConfiguration(configFile.toString(),
+                ConversionJob.unbounded()));
+
+        assertEquals(2, configList.size());
+        ConfigurableExcel data = configList.get(0);
+        assertEquals("Data", data.getSheetName());
+        assertEquals("", data.getSheetRange());
+        assertFalse(data.isDeleteAvailable());
+        assertEquals("Id, Name", data.getColumnList());
+        assertEquals("", data.getRowFilter());
+        assertEquals("rows:2", data.getCsvSplit());
+        assertEquals("Id", data.getDeltaKey());
+        ConfigurableExcel other = configList.get(1);
+        assertEquals("2-3", other.getSheetRange());
+        assertTrue(other.isDeleteAvailable());
+        assertEquals("", other.getColumnList());
+        assertEquals("", other.getDeltaKey());
+    }
+}
@@ -0,0 +1,140 @@
+package org.developer;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A run cancelled while it loads, estimates or hashes the workbook stops there and leaves no temporary files behind.
+ */
+class ConversionCancellationTest {
+    // * More shared strings than the table writes between two checks of the job
+    private static final int DATA_ROWS = 5000;
+
+    @TempDir
+    Path tempFolder;
+    private Path configFile;
+    private Path inputFile;
+    private Path zipFile;
+
+    @BeforeEach
+    void writeWorkbooks() throws IOException {
+        configFile = tempFolder.resolve("config.xlsx");
+        TestWorkbooks.writeConfig(configFile, List.<String[]>of(new String[]{"Data", "out/data.csv", "false", "true"}));
+        inputFile = tempFolder.resolve("input.xlsx");
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Data");
+        for (int rowIndex = 0; rowIndex <= DATA_ROWS; rowIndex++) {
+            Row row = sheet.createRow(rowIndex);
+            row.createCell(0).setCellValue(rowIndex == 0 ? "No" : String.valueOf(rowIndex));
+            row.createCell(1).setCellValue(rowIndex == 0 ? "Name" : "Name " + rowIndex);
+        }
+        TestWorkbooks.write(workbook, inputFile);
+        zipFile = tempFolder.resolve("output.zip");
+    }
+
+    @Test
+    void cancelWhileWritingSharedStrings() throws IOException {
+        assertCancelledWithoutLeftovers(new Excel2CSV(ExtractionEngine.STREAMING),
+                new CancelInPhaseJob("org.developer.MappedSharedStringsTable$SharedStringsWriter", "endElement"));
+    }
+
+    @Test
+    void cancelWhileEstimating() throws IOException {
+        assertCancelledWithoutLeftovers(new Excel2CSV(), new CancelInPhaseJob("org.developer.SheetCostEstimator", "estimate"));
+    }
+
+    @Test
+    void cancelWhileLoadingTheWorkbook() throws IOException {
+        assertCancelledWithoutLeftovers(new Excel2CSV(ExtractionEngine.IN_MEMORY), new CancelInPhaseJob("org.developer.Excel2CSV", "loadWorkbook"));
+    }
+
+    @Test
+    void cancelWhileHashingTheRunKey() throws IOException {
+        CancelInPhaseJob job = new CancelInPhaseJob("org.developer.CheckpointJournal", "runKey");
+        Path workFolder = tempFolder.resolve("work");
+        Set<Path> tempFiles = listTempFiles();
+
+        assertThrows(CancellationException.class, () -> new Excel2CSV().excel2CSVResumable(configFile.toString(), inputFile.toString(),
+                workFolder.toString(), zipFile.toString(), job));
+
+        assertTrue(job.isPhaseReached);
+        // * The run folder is named after the key, nothing is created before it is known
+        assertFalse(Files.exists(workFolder));
+        assertNoLeftovers(tempFiles);
+    }
+
+    private void assertCancelledWithoutLeftovers(Excel2CSV excel2CSV, CancelInPhaseJob job) throws IOException {
+        Set<Path> tempFiles = listTempFiles();
+
+        assertThrows(CancellationException.class, () -> excel2CSV.excel2CSV(configFile.toString(), inputFile.toString(),
+                zipFile.toString(), job));
+
+        assertTrue(job.isPhaseReached);
+        assertNoLeftovers(tempFiles);
+    }
+
+    private void assertNoLeftovers(Set<Path> tempFilesBefore) throws IOException {
+        assertFalse(Files.exists(zipFile));
+        try (Stream<Path> files = Files.list(tempFolder)) {
+            assertEquals(List.of(), files.filter(file -> file.getFileName().toString().endsWith(".part")).toList());
+        }
+        Set<Path> tempFiles = listTempFiles();
+        tempFiles.removeAll(tempFilesBefore);
+        assertEquals(Set.of(), tempFiles);
+    }
+
+    /**
+     * @return the temporary CSV folders, shared strings files and estimate copies of the system temporary folder
+     */
+    private static Set<Path> listTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> {
+                String fileName = file.getFileName().toString();
+                return fileName.startsWith("tempCSV") || fileName.startsWith("sharedStrings") || fileName.startsWith("estimate");
+            }).collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Cancels itself at the first checkpoint reached from the given method.
+     */
+    private static final class CancelInPhaseJob extends ConversionJob {
+        private final String className;
+        private final String methodName;
+        private volatile boolean isPhaseReached;
+
+        private CancelInPhaseJob(String className, String methodName) {
+            super(null, null, null);
+            this.className = className;
+            this.methodName = methodName;
+        }
+
+        @Override
+        public void checkpoint() {
+            if (!isPhaseReached && StackWalker.getInstance().walk(frames -> frames.anyMatch(frame ->
+                    frame.getClassName().equals(className) && frame.getMethodName().equals(methodName)))) {
+                isPhaseReached = true;
+                cancel();
+            }
+            super.checkpoint();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.developer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The streaming engines report the estimated rows from the size the sheet declares.
+ */
+class ConversionProgressTest {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    void streamingEnginesEstimateRowsFromTheDimension() throws Exception {
+        Path xlsxFile = tempFolder.resolve("data.xlsx");
+        Path xlsFile = tempFolder.resolve("data.xls");
+        TestWorkbooks.writeDataXlsx(xlsxFile);
+        TestWorkbooks.writeDataXls(xlsFile);
+        ConfigurableExcel parameters = new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", false, true, null, false);
+        ConfigurableExcel rangeParameters = new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", false, true, "2-3", false);
+
+        assertEquals(6, getEstimatedRows(new Excel2CSV(ExtractionEngine.STREAMING), xlsxFile, parameters));
+        assertEquals(6, getEstimatedRows(new Excel2CSV(), xlsFile, parameters));
+        // * The engine reads from the first row up to the end of the range
+        assertEquals(3, getEstimatedRows(new Excel2CSV(ExtractionEngine.STREAMING), xlsxFile, rangeParameters));
+    }
+
+    private long getEstimatedRows(Excel2CSV excel2CSV, Path excelFile, ConfigurableExcel parameters) {
+        List<SheetProgress> progress = new ArrayList<>();
+        ConversionJob job = new ConversionJob(null, null, progress::add);
+        job.startSheet("Data", 0, 1);
+        excel2CSV.queryExcelData(excelFile.toString(), parameters, job);
+        return progress.get(progress.size() - 1).getEstimatedRows();
+    }
+}
@@ -0,0 +1,45 @@
+package org.developer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The sink writes the same bytes as the JDK UTF-8 encoder.
+ */
+class CsvSinkTest {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    void writesUtf8LikeTheJdkEncoder() throws Exception {
+        StringBuilder text = new StringBuilder();
+        // * Long enough to fill the whole batch of buffers several times, with multi-byte characters across buffer ends
+        for (int line = 0; text.length() < 1_000_000; line++) {
+            text.append("row ").append(line).append(",Zoë,€ 12,😀,").append(line % 7 == 0 ? "\uD800" : "ascii").append(System.lineSeparator());
+        }
+        Path csvFile = tempFolder.resolve("utf8.csv");
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        long bytesWritten;
+        try (CsvSink sink = new CsvSink(csvFile, digest)) {
+            sink.write(text.toString());
+            sink.write(',');
+            sink.newLine();
+            bytesWritten = sink.getBytesWritten();
+        }
+
+        byte[] expected = (text + "," + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        byte[] written = Files.readAllBytes(csvFile);
+        assertArrayEquals(expected, written);
+        assertEquals(expected.length, bytesWritten);
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(expected), digest.digest());
+    }
+}
@@ -0,0 +1,176 @@
+package org.developer;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A split CSV is written as parts repeating the header, listed with their real row counts, sizes and checksums in the manifest.
+ */
+class CsvSplitTest {
+    private static final int DATA_ROWS = 10;
+
+    @TempDir
+    Path tempFolder;
+    private Path inputFile;
+
+    @BeforeEach
+    void writeWorkbook() throws IOException {
+        inputFile = tempFolder.resolve("input.xlsx");
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Data");
+        String[] header = {"No", "Name", "Value"};
+        Row headerRow = sheet.createRow(0);
+        for (int columnIndex = 0; columnIndex < header.length; columnIndex++) {
+            headerRow.createCell(columnIndex).setCellValue(header[columnIndex]);
+        }
+        for (int rowIndex = 1; rowIndex <= DATA_ROWS; rowIndex++) {
+            Row row = sheet.createRow(rowIndex);
+            row.createCell(0).setCellValue(String.valueOf(rowIndex));
+            row.createCell(1).setCellValue(String.format("Name %02d", rowIndex));
+            row.createCell(2).setCellValue(String.format("V%02d", rowIndex));
+        }
+        TestWorkbooks.write(workbook, inputFile);
+    }
+
+    @Test
+    void rowCountSplitEndsWithAShortPart() throws Exception {
+        Map<String, byte[]> entries = convert("rows:4");
+
+        List<List<String>> parts = List.of(
+                readLines(entries, "data.part0001.csv"),
+                readLines(entries, "data.part0002.csv"),
+                readLines(entries, "data.part0003.csv"));
+        assertEquals(4, entries.size());
+        assertEquals(List.of(5, 5, 3), parts.stream().map(List::size).toList());
+        List<String> dataLines = new ArrayList<>();
+        for (List<String> part : parts) {
+            assertEquals("name,value", part.get(0));
+            dataLines.addAll(part.subList(1, part.size()));
+        }
+        assertEquals(expectedDataLines(), dataLines);
+        assertManifestMatchesParts(entries, List.of(4L, 4L, 2L));
+    }
+
+    @Test
+    void sizeSplitClosesAPartOnceItReachesTheSize() throws Exception {
+        // * The header and three rows take 46 bytes with one-byte line separators and 49 with two, so both close at three rows
+        Map<String, byte[]> entries = convert("size:40B");
+
+        assertEquals(5, entries.size());
+        List<String> dataLines = new ArrayList<>();
+        for (int partNumber = 1; partNumber <= 4; partNumber++) {
+            String partName = String.format("data.part%04d.csv", partNumber);
+            List<String> part = readLines(entries, partName);
+            assertEquals("name,value", part.get(0));
+            dataLines.addAll(part.subList(1, part.size()));
+            if (partNumber < 4) {
+                // * A closed part reached the size with its last row only
+                int size = entries.get(partName).length;
+                int lastLineSize = (System.lineSeparator() + part.get(part.size() - 1)).getBytes(StandardCharsets.UTF_8).length;
+                assertTrue(size >= 40, partName + " " + size);
+                assertTrue(size - lastLineSize < 40, partName + " " + size);
+            }
+        }
+        assertEquals(expectedDataLines(), dataLines);
+        assertManifestMatchesParts(entries, List.of(3L, 3L, 3L, 1L));
+    }
+
+    @Test
+    void invalidSplitIsRejectedBeforeTheConversion() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> CsvSplit.parse("rows:0"));
+        assertThrows(IllegalArgumentException.class, () -> CsvSplit.parse("size:10XB"));
+        assertThrows(IllegalArgumentException.class, () -> CsvSplit.parse("size:0KB"));
+        assertEquals(10L * 1024 * 1024, CsvSplit.parse(" Size : 10 mb ").getLimit());
+
+        for (String csvSplit : List.of("rows:0", "size:10XB")) {
+            Path configFile = writeConfig(csvSplit);
+            Path zipFile = tempFolder.resolve("invalid.zip");
+            Exception error = assertThrows(Exception.class,
+                    () -> new Excel2CSV().excel2CSV(configFile.toString(), inputFile.toString(), zipFile.toString()));
+            assertEquals("Data INVALID CSV SPLIT: " + csvSplit, error.getMessage());
+            assertFalse(Files.exists(zipFile));
+        }
+    }
+
+    private Path writeConfig(String csvSplit) throws IOException {
+        Path configFile = tempFolder.resolve("config.xlsx");
+        TestWorkbooks.writeConfig(configFile, List.<String[]>of(
+                new String[]{"Data", "out/data.csv", "false", "true", null, null, null, null, csvSplit}));
+        return configFile;
+    }
+
+    /**
+     * Converts the workbook with the given split and returns the ZIP entries by file name.
+     */
+    private Map<String, byte[]> convert(String csvSplit) throws Exception {
+        Path configFile = writeConfig(csvSplit);
+        Path zipFile = tempFolder.resolve("output.zip");
+        new Excel2CSV().excel2CSV(configFile.toString(), inputFile.toString(), zipFile.toString());
+        Map<String, byte[]> entries = new TreeMap<>();
+        try (ZipInputStream zipInput = new ZipInputStream(Files.newInputStream(zipFile))) {
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    entries.put(entry.getName().substring(entry.getName().lastIndexOf('/') + 1), zipInput.readAllBytes());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Checks each manifest line against the part it names: data rows, byte count and SHA-256 of the bytes in the ZIP.
+     */
+    private static void assertManifestMatchesParts(Map<String, byte[]> entries, List<Long> expectedRows)
+            throws NoSuchAlgorithmException {
+        List<String> manifest = readLines(entries, "data.manifest.tsv");
+        assertEquals("part\trows\tbytes\tsha256", manifest.get(0));
+        assertEquals(expectedRows.size() + 1, manifest.size());
+        for (int partIndex = 0; partIndex < expectedRows.size(); partIndex++) {
+            String[] columns = manifest.get(partIndex + 1).split("\t");
+            String partName = String.format("data.part%04d.csv", partIndex + 1);
+            byte[] part = entries.get(partName);
+            assertEquals(partName, columns[0]);
+            assertEquals(expectedRows.get(partIndex), Long.parseLong(columns[1]));
+            assertEquals(readLines(entries, partName).size() - 1, Long.parseLong(columns[1]));
+            assertEquals(part.length, Long.parseLong(columns[2]));
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(part)), columns[3]);
+        }
+    }
+
+    private static List<String> readLines(Map<String, byte[]> entries, String fileName) {
+        assertTrue(entries.containsKey(fileName), fileName + " NOT FOUND IN " + entries.keySet());
+        return List.of(new String(entries.get(fileName), StandardCharsets.UTF_8).split("\\R"));
+    }
+
+    private static List<String> expectedDataLines() {
+        List<String> lines = new ArrayList<>();
+        for (int rowIndex = 1; rowIndex <= DATA_ROWS; rowIndex++) {
+            lines.add(String.format("Name %02d,V%02d", rowIndex, rowIndex));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,219 @@
+package org.developer;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Inserted, updated and deleted rows are found against the index of the previous run.
+ */
+class DeltaIndexTest {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    void deltaHoldsInsertedUpdatedAndDeletedRows() throws IOException {
+        Path indexFolder = tempFolder.resolve("delta-index");
+        List<List<String>> firstRun = List.of(
+                List.of("Id", "Name", "City"),
+                List.of("1", "Alice", "Paris"),
+                List.of("2", "Bob", "Oslo"),
+                List.of("3", "Carol", "Rome"));
+        try (DeltaIndex firstIndex = DeltaIndex.open(indexFolder, "out/people.csv", "run1")) {
+            List<List<String>> firstDelta = firstIndex.computeDelta(firstRun, "Id", "People");
+
+            assertEquals(List.of("Id", "Name", "City", "deleted"), firstDelta.get(0));
+            assertEquals(4, firstDelta.size());
+            assertEquals(3, firstIndex.getInsertedRows());
+        }
+        DeltaIndex.commit(List.of(DeltaIndex.getPendingFile(indexFolder, "out/people.csv", "run1")), "run1");
+
+        List<List<String>> secondRun = List.of(
+                List.of("Id", "Name", "City"),
+                List.of("1", "Alice", "Paris"),
+                List.of("3", "Carol", "Milan"),
+                List.of("4", "Dan", "Lima"));
+        try (DeltaIndex secondIndex = DeltaIndex.open(indexFolder, "out/people.csv", "run2")) {
+            List<List<String>> secondDelta = secondIndex.computeDelta(secondRun, "Id", "People");
+
+            assertEquals(List.of(
+                    List.of("Id", "Name", "City", "deleted"),
+                    List.of("3", "Carol", "Milan", "False"),
+                    List.of("4", "Dan", "Lima", "False"),
+                    List.of("2", "", "", "True")), secondDelta);
+            assertEquals(1, secondIndex.getInsertedRows());
+            assertEquals(1, secondIndex.getUpdatedRows());
+            assertEquals(1, secondIndex.getDeletedRows());
+        }
+        // * The index read by the second run is replaced once that run is closed
+        DeltaIndex.commit(List.of(DeltaIndex.getPendingFile(indexFolder, "out/people.csv", "run2")), "run2");
+        try (DeltaIndex thirdIndex = DeltaIndex.open(indexFolder, "out/people.csv", "run3")) {
+            assertEquals(1, thirdIndex.computeDelta(secondRun, "Id", "People").size());
+        }
+    }
+
+    @Test
+    void keysAreFoundAcrossManyBlocks() throws IOException {
+        Path indexFolder = tempFolder.resolve("delta-index");
+        List<List<String>> firstRun = new ArrayList<>();
+        List<List<String>> secondRun = new ArrayList<>();
+        firstRun.add(List.of("Id", "Value"));
+        secondRun.add(List.of("Id", "Value"));
+        for (int id = 0; id < 1000; id++) {
+            firstRun.add(List.of("K" + id, "V" + id));
+            // * Every fifth key is removed, every third one updated, and 50 keys are new
+            if (id % 5 != 0) {
+                secondRun.add(List.of("K" + id, id % 3 == 0 ? "W" + id : "V" + id));
+            }
+        }
+        for (int id = 1000; id < 1050; id++) {
+            secondRun.add(List.of("K" + id, "V" + id));
+        }
+        try (DeltaIndex firstIndex = DeltaIndex.open(indexFolder, "keys.csv", "run1")) {
+            firstIndex.computeDelta(firstRun, "Id", "Keys");
+        }
+        DeltaIndex.commit(List.of(DeltaIndex.getPendingFile(indexFolder, "keys.csv", "run1")), "run1");
+
+        try (DeltaIndex secondIndex = DeltaIndex.open(indexFolder, "keys.csv", "run2")) {
+            List<List<String>> delta = secondIndex.computeDelta(secondRun, "Id", "Keys");
+
+            long updated = IntStream.range(0, 1000).filter(id -> id % 5 != 0 && id % 3 == 0).count();
+            assertEquals(50, secondIndex.getInsertedRows());
+            assertEquals(updated, secondIndex.getUpdatedRows());
+            assertEquals(200, secondIndex.getDeletedRows());
+            assertEquals(1 + 50 + updated + 200, delta.size());
+            assertTrue(delta.contains(List.of("K995", "", "True")));
+            assertTrue(delta.contains(List.of("K999", "W999", "False")));
+        }
+    }
+
+    @Test
+    void keyAndDeletedColumnsMatchTheCsvHeader() throws IOException {
+        Path indexFolder = tempFolder.resolve("delta-index");
+        List<List<String>> rows = List.of(
+                List.of("Customer Id *", "Name", "Deleted "),
+                List.of("1", "Alice", "False"),
+                List.of("2", "Bob", "False"));
+
+        try (DeltaIndex deltaIndex = DeltaIndex.open(indexFolder, "customers.csv", "run1")) {
+            // * The key as written to the CSV header, and the sheet's own Deleted column carries the flag
+            List<List<String>> delta = deltaIndex.computeDelta(rows, "customer_id", "Customers");
+
+            assertEquals(List.of("Customer Id *", "Name", "Deleted "), delta.get(0));
+            assertEquals(List.of("1", "Alice", "False"), delta.get(1));
+        }
+        try (DeltaIndex deltaIndex = DeltaIndex.open(indexFolder, "customers.csv", "run2")) {
+            assertEquals(3, deltaIndex.computeDelta(rows, "Customer Id", "Customers").size());
+        }
+    }
+
+    @Test
+    void uncommittedRunIsComparedWithThePreviousRunAgain() throws IOException {
+        Path indexFolder = tempFolder.resolve("delta-index");
+        List<List<String>> rows = List.of(List.of("Id", "Name"), List.of("1", "Alice"));
+        try (DeltaIndex firstIndex = DeltaIndex.open(indexFolder, "people.csv", "run1")) {
+            firstIndex.computeDelta(rows, "A", "People");
+        }
+
+        try (DeltaIndex secondIndex = DeltaIndex.open(indexFolder, "people.csv", "run2")) {
+            secondIndex.computeDelta(rows, "A", "People");
+
+            assertEquals(1, secondIndex.getInsertedRows());
+        }
+        assertTrue(Files.exists(DeltaIndex.getPendingFile(indexFolder, "people.csv", "run1")));
+        assertTrue(Files.exists(DeltaIndex.getPendingFile(indexFolder, "people.csv", "run2")));
+    }
+
+    @Test
+    void deleteOptionWithoutTransposeKeepsOneDeletedColumn() throws Exception {
+        Path configFile = tempFolder.resolve("config.xlsx");
+        TestWorkbooks.writeConfig(configFile, List.<String[]>of(
+                new String[]{"Data", "out/data.csv", "false", "true", null, "true", null, null, null, "Comment"}));
+        Path inputFile = tempFolder.resolve("input.xlsx");
+        writeData(inputFile, false);
+        Excel2CSV excel2CSV = new Excel2CSV(null, tempFolder.resolve("delta-index"));
+        Path firstZip = tempFolder.resolve("first.zip");
+
+        excel2CSV.excel2CSV(configFile.toString(), inputFile.toString(), firstZip.toString());
+
+        // * Column A holds the row number and is not converted, the Comment column is the last data column
+        List<List<String>> firstCsv = readCsv(firstZip, "data.csv");
+        assertEquals(List.of("name", "amount", "date", "flag", "total", "comment", "deleted"), firstCsv.get(0));
+        assertEquals(6, firstCsv.size());
+        for (List<String> row : firstCsv.subList(1, firstCsv.size())) {
+            assertEquals(7, row.size());
+            assertEquals("False", row.get(6));
+        }
+
+        writeData(inputFile, true);
+        Path secondZip = tempFolder.resolve("second.zip");
+
+        excel2CSV.excel2CSV(configFile.toString(), inputFile.toString(), secondZip.toString());
+
+        List<List<String>> secondCsv = readCsv(secondZip, "data.csv");
+        assertEquals(4, secondCsv.size());
+        assertEquals(List.of("Note 2", "False"), secondCsv.get(1).subList(5, 7));
+        assertEquals(List.of("Note 6", "False"), secondCsv.get(2).subList(5, 7));
+        assertEquals(List.of("", "", "", "", "", "Note 5", "True"), secondCsv.get(3));
+    }
+
+    /**
+     * Writes the {@link TestWorkbooks#fillData} workbook with a plain name on every row, changed on the second run:
+     * the amount of row 2 is updated and the comment of row 5, the delta key, is replaced.
+     */
+    private static void writeData(Path excelFile, boolean isChanged) throws IOException {
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        TestWorkbooks.fillData(workbook);
+        Sheet sheet = workbook.getSheet("Data");
+        for (int rowIndex = 1; rowIndex <= 5; rowIndex++) {
+            sheet.getRow(rowIndex).createCell(1).setCellValue("Name " + rowIndex);
+        }
+        if (isChanged) {
+            sheet.getRow(2).getCell(2).setCellValue(99);
+            sheet.getRow(5).getCell(6).setCellValue("Note 6");
+        }
+        TestWorkbooks.write(workbook, excelFile);
+    }
+
+    /**
+     * Reads the CSV entry of a ZIP, splitting the lines on commas (the cells of the test data hold none).
+     */
+    private static List<List<String>> readCsv(Path zipFile, String entryName) throws IOException {
+        try (ZipInputStream zipInput = new ZipInputStream(Files.newInputStream(zipFile))) {
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                if (entry.getName().endsWith(entryName)) {
+                    return parseLines(zipInput);
+                }
+            }
+        }
+        return fail(entryName + " NOT FOUND IN " + zipFile);
+    }
+
+    private static List<List<String>> parseLines(InputStream input) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for (String line : new String(input.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+            if (!line.isEmpty()) {
+                rows.add(Arrays.asList(line.split(",", -1)));
+            }
+        }
+        return rows;
+    }
+}
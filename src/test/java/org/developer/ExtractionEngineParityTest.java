@@ -0,0 +1,80 @@
+package org.developer;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The streaming engine extracts the same rows as the in-memory engine.
+ */
+class ExtractionEngineParityTest {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    void xlsxEnginesExtractTheSameRows() throws Exception {
+        Path excelFile = tempFolder.resolve("data.xlsx");
+        TestWorkbooks.writeDataXlsx(excelFile);
+        ConfigurableExcel parameters = new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", false, true, null, false);
+
+        List<List<String>> inMemoryRows = new Excel2CSV(ExtractionEngine.IN_MEMORY).queryExcelData(excelFile.toString(), parameters);
+        List<List<String>> streamingRows = new Excel2CSV(ExtractionEngine.STREAMING).queryExcelData(excelFile.toString(), parameters);
+
+        assertEquals(6, inMemoryRows.size());
+        assertEquals(inMemoryRows, streamingRows);
+        // * F5 belongs to the shared formula of F2:F6
+        assertEquals("C5*2", streamingRows.get(4).get(5));
+    }
+
+    @Test
+    void xlsxEnginesExtractTheSameSheetRanges() throws Exception {
+        Path excelFile = tempFolder.resolve("data.xlsx");
+        TestWorkbooks.writeDataXlsx(excelFile);
+        ConfigurableExcel parameters = new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", false, false, "2-3, 5", false);
+
+        List<List<String>> inMemoryRows = new Excel2CSV(ExtractionEngine.IN_MEMORY).queryExcelData(excelFile.toString(), parameters);
+        List<List<String>> streamingRows = new Excel2CSV(ExtractionEngine.STREAMING).queryExcelData(excelFile.toString(), parameters);
+
+        assertEquals(3, inMemoryRows.size());
+        assertEquals(inMemoryRows, streamingRows);
+        assertEquals("Bob, \"B\"", streamingRows.get(0).get(1));
+    }
+
+    @Test
+    void xlsEngineExtractsTheRowsOfTheXlsxEngines() throws Exception {
+        Path xlsxFile = tempFolder.resolve("data.xlsx");
+        Path xlsFile = tempFolder.resolve("data.xls");
+        TestWorkbooks.writeDataXlsx(xlsxFile);
+        TestWorkbooks.writeDataXls(xlsFile);
+        try (HSSFWorkbook workbook = new HSSFWorkbook(Files.newInputStream(xlsFile))) {
+            // * The fixture holds a real shared formula, which HSSFCell translates
+            assertEquals("C4*2", workbook.getSheet("Data").getRow(3).getCell(5).getCellFormula());
+        }
+        ConfigurableExcel parameters = new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", false, true, null, false);
+
+        List<List<String>> inMemoryRows = new Excel2CSV(ExtractionEngine.IN_MEMORY).queryExcelData(xlsxFile.toString(), parameters);
+        List<List<String>> legacyRows = new Excel2CSV().queryExcelData(xlsFile.toString(), parameters);
+
+        assertEquals(inMemoryRows, legacyRows);
+        assertEquals("C6*2", legacyRows.get(5).get(5));
+    }
+
+    @Test
+    void xlsEngineExtractsSharedFormulasOutsideTheirFirstRow() throws Exception {
+        Path xlsFile = tempFolder.resolve("data.xls");
+        TestWorkbooks.writeDataXls(xlsFile);
+        ConfigurableExcel parameters = new ConfigurableExcel(0, -1, 0, -1, "Data", "data.csv", false, false, "4-5", false);
+
+        List<List<String>> legacyRows = new Excel2CSV().queryExcelData(xlsFile.toString(), parameters);
+
+        assertEquals(2, legacyRows.size());
+        assertEquals("C4*2", legacyRows.get(0).get(4));
+        assertEquals("C5*2", legacyRows.get(1).get(5));
+    }
+}
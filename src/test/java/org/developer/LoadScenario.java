@@ -0,0 +1,159 @@
+package org.developer;
+
+import java.util.Properties;
+
+/**
+ * One run of {@link LoadTestHarness}: the shape of the synthetic workbook, how it is configured, the heap of
+ * the JVM converting it and the budgets the run has to stay within.
+ * Every value can be overridden from a properties file with keys of the form {@code <scenario>.<name>},
+ * for example {@code tall.heapMB=2048} or {@code tall.minRowsPerSecond=50000}.
+ */
+public final class LoadScenario {
+    /**
+     * The conversion a scenario runs.
+     */
+    public enum Conversion {
+        CSV,
+        PDF
+    }
+
+    private final String name;
+    private final Conversion conversion;
+    private final int sheetCount;
+    private final int rowCount;
+    private final int columnCount;
+    private final boolean isTranspose;
+    private final String sheetRange;
+    private final int heapMB;
+    private final long maxSeconds;
+    private final long minRowsPerSecond;
+    private final long maxPeakHeapMB;
+    private final long maxRssMB;
+    private final long maxGcMillis;
+
+    /**
+     * @param name the name of the scenario, the prefix of its keys in the budget properties
+     * @param conversion the conversion to run
+     * @param sheetCount the number of sheets of the workbook
+     * @param rowCount the number of data rows of each sheet
+     * @param columnCount the number of columns of each sheet, the comment column included
+     * @param isTranspose true to configure every sheet as transposed
+     * @param sheetRange the sheet range configured for every sheet, empty for none
+     * @param heapMB the maximum heap of the converting JVM
+     * @param maxSeconds the longest the conversion may take
+     * @param minRowsPerSecond the lowest accepted throughput, in input rows per second
+     * @param maxPeakHeapMB the highest accepted peak heap use
+     * @param maxRssMB the highest accepted peak resident set size, ignored where it cannot be measured
+     * @param maxGcMillis the longest accepted total garbage collection time
+     */
+    public LoadScenario(String name, Conversion conversion, int sheetCount, int rowCount, int columnCount, boolean isTranspose,
+                        String sheetRange, int heapMB, long maxSeconds, long minRowsPerSecond, long maxPeakHeapMB, long maxRssMB,
+                        long maxGcMillis) {
+        this.name = name;
+        this.conversion = conversion;
+        this.sheetCount = sheetCount;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.isTranspose = isTranspose;
+        this.sheetRange = sheetRange;
+        this.heapMB = heapMB;
+        this.maxSeconds = maxSeconds;
+        this.minRowsPerSecond = minRowsPerSecond;
+        this.maxPeakHeapMB = maxPeakHeapMB;
+        this.maxRssMB = maxRssMB;
+        this.maxGcMillis = maxGcMillis;
+    }
+
+    /**
+     * Returns a copy of the scenario with the values found in the properties.
+     *
+     * @param budgets the properties, keyed by {@code <scenario>.<name>}
+     * @return the scenario with its overridden values
+     * @throws IllegalArgumentException if a value is not a valid number
+     */
+    public LoadScenario withOverrides(Properties budgets) {
+        return new LoadScenario(name, conversion,
+                (int) getLong(budgets, "sheets", sheetCount),
+                (int) getLong(budgets, "rows", rowCount),
+                (int) getLong(budgets, "columns", columnCount),
+                Boolean.parseBoolean(budgets.getProperty(name + ".transpose", String.valueOf(isTranspose))),
+                budgets.getProperty(name + ".sheetRange", sheetRange),
+                (int) getLong(budgets, "heapMB", heapMB),
+                getLong(budgets, "maxSeconds", maxSeconds),
+                getLong(budgets, "minRowsPerSecond", minRowsPerSecond),
+                getLong(budgets, "maxPeakHeapMB", maxPeakHeapMB),
+                getLong(budgets, "maxRssMB", maxRssMB),
+                getLong(budgets, "maxGcMillis", maxGcMillis));
+    }
+
+    private long getLong(Properties budgets, String key, long defaultValue) {
+        String value = budgets.getProperty(name + "." + key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("INVALID LOAD TEST BUDGET: " + name + "." + key + "=" + value);
+        }
+    }
+
+    /**
+     * @return the number of input rows the conversion reads, the header rows excluded
+     */
+    public long getInputRows() {
+        return (long) sheetCount * rowCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Conversion getConversion() {
+        return conversion;
+    }
+
+    public int getSheetCount() {
+        return sheetCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public boolean isTranspose() {
+        return isTranspose;
+    }
+
+    public String getSheetRange() {
+        return sheetRange;
+    }
+
+    public int getHeapMB() {
+        return heapMB;
+    }
+
+    public long getMaxSeconds() {
+        return maxSeconds;
+    }
+
+    public long getMinRowsPerSecond() {
+        return minRowsPerSecond;
+    }
+
+    public long getMaxPeakHeapMB() {
+        return maxPeakHeapMB;
+    }
+
+    public long getMaxRssMB() {
+        return maxRssMB;
+    }
+
+    public long getMaxGcMillis() {
+        return maxGcMillis;
+    }
+}
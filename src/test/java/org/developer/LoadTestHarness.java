@@ -0,0 +1,297 @@
+package org.developer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test of {@link Excel2CSV#excel2CSV(String, String)} and {@link Excel2PDF#convertExcelToPDF(String, String)}.
+ * For each scenario a synthetic CSD-style workbook and its configurable Excel are generated, then converted in a
+ * child JVM started with the heap of the scenario. The child reports the conversion time, the peak heap (sum of
+ * the peaks of the heap memory pools), the peak resident set size (Linux only) and the garbage collection time.
+ * The run fails, with exit code 1, when a scenario fails or falls outside one of its budgets.
+ * <p>
+ * Usage: {@code LoadTestHarness <workFolder> [budgets.properties] [scenario ...]}
+ */
+public class LoadTestHarness {
+    private static final String WORKER = "--worker";
+    private static final String METRICS = "LOADTEST-METRICS";
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * Scenarios run when none is named. The budgets are about 1.5 to 2 times the figures measured on a 1-CPU Linux VM
+     * with JDK 17, so that a regression fails the run; a slower machine overrides them from a properties file.
+     */
+    private static final List<LoadScenario> DEFAULT_SCENARIOS = List.of(
+            new LoadScenario("tall", LoadScenario.Conversion.CSV, 1, 1_000_000, 12, false, "", 2048, 80, 12_000, 1700, 2000, 25_000),
+            new LoadScenario("wide", LoadScenario.Conversion.CSV, 1, 50_000, 250, false, "", 2048, 75, 650, 1800, 2100, 20_000),
+            new LoadScenario("many-sheets", LoadScenario.Conversion.CSV, 50, 20_000, 15, false, "", 2048, 90, 11_000, 180, 350, 8_000),
+            new LoadScenario("transposed", LoadScenario.Conversion.CSV, 20, 500, 40, true, "", 1024, 11, 900, 70, 220, 180),
+            new LoadScenario("ranged", LoadScenario.Conversion.CSV, 1, 500_000, 12, false, "3, 10-100000, 250000-400000", 2048, 32, 15_000,
+                    500, 650, 2_500),
+            new LoadScenario("pdf", LoadScenario.Conversion.PDF, 2, 10_000, 10, false, "", 1024, 35, 550, 900, 1100, 5_500));
+
+    public static void main(String[] args) {
+        try {
+            if (args.length > 0 && WORKER.equals(args[0])) {
+                runWorker(args);
+                return;
+            }
+            if (args.length < 1) {
+                System.out.println("Usage: LoadTestHarness <workFolder> [budgets.properties] [scenario ...]");
+                System.exit(2);
+            }
+            Path workFolder = Paths.get(args[0]).toAbsolutePath();
+            Properties budgets = new Properties();
+            int firstScenario = 1;
+            if (args.length > 1 && args[1].endsWith(".properties")) {
+                try (InputStream budgetStream = Files.newInputStream(Paths.get(args[1]))) {
+                    budgets.load(budgetStream);
+                }
+                firstScenario = 2;
+            }
+            List<LoadScenario> scenarios = selectScenarios(args, firstScenario, budgets);
+            boolean isPassed = new LoadTestHarness().run(workFolder, scenarios);
+            System.out.println(isPassed ? "LOAD TEST PASSED" : "LOAD TEST FAILED");
+            System.exit(isPassed ? 0 : 1);
+        } catch (Exception e) {
+            //noinspection CallToPrintStackTrace
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static List<LoadScenario> selectScenarios(String[] args, int firstScenario, Properties budgets) {
+        List<LoadScenario> scenarios = new ArrayList<>();
+        for (LoadScenario scenario : DEFAULT_SCENARIOS) {
+            boolean isSelected = args.length == firstScenario;
+            for (int argIndex = firstScenario; argIndex < args.length; argIndex++) {
+                isSelected |= scenario.getName().equals(args[argIndex]);
+            }
+            if (isSelected) {
+                scenarios.add(scenario.withOverrides(budgets));
+            }
+        }
+        for (int argIndex = firstScenario; argIndex < args.length; argIndex++) {
+            String scenarioName = args[argIndex];
+            if (DEFAULT_SCENARIOS.stream().noneMatch(scenario -> scenario.getName().equals(scenarioName))) {
+                throw new IllegalArgumentException("UNKNOWN LOAD TEST SCENARIO: " + scenarioName);
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * Runs the scenarios one after the other and prints a summary.
+     *
+     * @param workFolder the folder receiving the generated workbooks and the outputs, one sub folder per scenario
+     * @param scenarios the scenarios to run
+     * @return true if every scenario completed within its budgets
+     * @throws IOException if a workbook cannot be generated or the child JVM cannot be started
+     * @throws InterruptedException if interrupted while waiting for a child JVM
+     */
+    public boolean run(Path workFolder, List<LoadScenario> scenarios) throws IOException, InterruptedException {
+        List<String> summary = new ArrayList<>();
+        summary.add(String.format("%-12s %10s %12s %10s %10s %10s  %s", "Scenario", "Seconds", "Rows/s", "Heap MB", "RSS MB", "GC ms", "Result"));
+        boolean isPassed = true;
+        for (LoadScenario scenario : scenarios) {
+            System.out.println("Scenario: " + scenario.getName() + " (" + scenario.getSheetCount() + " sheets x " + scenario.getRowCount()
+                    + " rows x " + scenario.getColumnCount() + " columns, -Xmx" + scenario.getHeapMB() + "m)");
+            Map<String, Long> metrics = runScenario(workFolder.resolve(scenario.getName()), scenario);
+            List<String> violations = checkBudgets(scenario, metrics);
+            isPassed &= violations.isEmpty();
+            long millis = metrics.getOrDefault("millis", -1L);
+            summary.add(String.format("%-12s %10s %12s %10s %10s %10s  %s", scenario.getName(),
+                    millis >= 0 ? String.format("%.1f", millis / 1000.0) : "-",
+                    millis > 0 ? String.valueOf(scenario.getInputRows() * 1000 / millis) : "-",
+                    toMB(metrics.get("peakHeapBytes")), toMB(metrics.get("rssBytes")),
+                    metrics.containsKey("gcMillis") ? String.valueOf(metrics.get("gcMillis")) : "-",
+                    violations.isEmpty() ? "PASSED" : "FAILED: " + String.join("; ", violations)));
+        }
+        summary.forEach(System.out::println);
+        return isPassed;
+    }
+
+    /**
+     * Generates the workbooks of the scenario, when not generated by an earlier run, and converts them in a child JVM.
+     *
+     * @return the metrics reported by the child, with the exit code under {@code exitCode}, absent if it timed out
+     */
+    private Map<String, Long> runScenario(Path scenarioFolder, LoadScenario scenario) throws IOException, InterruptedException {
+        Files.createDirectories(scenarioFolder);
+        SyntheticWorkbookGenerator generator = new SyntheticWorkbookGenerator();
+        Path inputExcel = scenarioFolder.resolve("CSD_" + scenario.getSheetCount() + "x" + scenario.getRowCount() + "x"
+                + scenario.getColumnCount() + ".xlsx");
+        if (!Files.exists(inputExcel)) {
+            System.out.println("Generating " + inputExcel);
+            Path partialExcel = scenarioFolder.resolve(inputExcel.getFileName() + ".partial");
+            generator.generateInput(partialExcel, scenario.getSheetCount(), scenario.getRowCount(), scenario.getColumnCount());
+            Files.move(partialExcel, inputExcel);
+        }
+        Path configurableExcel = scenarioFolder.resolve("CSD_TO_CSV.xlsx");
+        List<String[]> configRows = new ArrayList<>();
+        for (int sheetIndex = 1; sheetIndex <= scenario.getSheetCount(); sheetIndex++) {
+            configRows.add(new String[]{"Sheet" + sheetIndex, "loadtest/Sheet" + sheetIndex + ".csv", String.valueOf(scenario.isTranspose()),
+                    "true", scenario.getSheetRange(), "false"});
+        }
+        generator.generateConfig(configurableExcel, configRows);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + scenario.getHeapMB() + "m");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadTestHarness.class.getName());
+        command.add(WORKER);
+        command.add(scenario.getConversion().name());
+        command.add(configurableExcel.toString());
+        command.add(inputExcel.toString());
+        command.add(scenarioFolder.resolve("CSD.pdf").toString());
+        Process process = new ProcessBuilder(command).directory(scenarioFolder.toFile()).redirectErrorStream(true).start();
+
+        Map<String, Long> metrics = new HashMap<>();
+        Thread outputReader = new Thread(() -> readWorkerOutput(process.getInputStream(), metrics), "loadtest-" + scenario.getName());
+        outputReader.start();
+        // * Leaves room for the JVM start and the validation pass on top of the conversion budget
+        if (!process.waitFor(scenario.getMaxSeconds() * 2 + 120, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+            outputReader.join();
+            return metrics;
+        }
+        outputReader.join();
+        metrics.put("exitCode", (long) process.exitValue());
+        return metrics;
+    }
+
+    private void readWorkerOutput(InputStream output, Map<String, Long> metrics) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(METRICS)) {
+                    for (String field : line.substring(METRICS.length()).trim().split(" ")) {
+                        String[] keyValue = field.split("=");
+                        metrics.put(keyValue[0], Long.parseLong(keyValue[1]));
+                    }
+                } else {
+                    System.out.println("  | " + line);
+                }
+            }
+        } catch (IOException e) {
+            //noinspection CallToPrintStackTrace
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return the budgets the run broke, empty if it passed
+     */
+    private List<String> checkBudgets(LoadScenario scenario, Map<String, Long> metrics) {
+        List<String> violations = new ArrayList<>();
+        if (!metrics.containsKey("exitCode")) {
+            violations.add("TIMED OUT");
+            return violations;
+        }
+        long exitCode = metrics.get("exitCode");
+        if (exitCode != 0 || !metrics.containsKey("millis")) {
+            violations.add("CONVERSION FAILED WITH EXIT CODE " + exitCode);
+            return violations;
+        }
+        long millis = metrics.get("millis");
+        if (millis > scenario.getMaxSeconds() * 1000) {
+            violations.add("TIME " + millis / 1000 + "s > " + scenario.getMaxSeconds() + "s");
+        }
+        long rowsPerSecond = millis > 0 ? scenario.getInputRows() * 1000 / millis : Long.MAX_VALUE;
+        if (rowsPerSecond < scenario.getMinRowsPerSecond()) {
+            violations.add("THROUGHPUT " + rowsPerSecond + " rows/s < " + scenario.getMinRowsPerSecond());
+        }
+        long peakHeapMB = metrics.getOrDefault("peakHeapBytes", 0L) / MB;
+        if (peakHeapMB > scenario.getMaxPeakHeapMB()) {
+            violations.add("HEAP " + peakHeapMB + "MB > " + scenario.getMaxPeakHeapMB() + "MB");
+        }
+        long rssBytes = metrics.getOrDefault("rssBytes", -1L);
+        if (rssBytes >= 0 && rssBytes / MB > scenario.getMaxRssMB()) {
+            violations.add("RSS " + rssBytes / MB + "MB > " + scenario.getMaxRssMB() + "MB");
+        }
+        long gcMillis = metrics.getOrDefault("gcMillis", 0L);
+        if (gcMillis > scenario.getMaxGcMillis()) {
+            violations.add("GC " + gcMillis + "ms > " + scenario.getMaxGcMillis() + "ms");
+        }
+        return violations;
+    }
+
+    private static String toMB(Long bytes) {
+        return bytes != null && bytes >= 0 ? String.valueOf(bytes / MB) : "-";
+    }
+
+    /**
+     * Runs one conversion in the child JVM and prints its metrics on a single line.
+     * Arguments: {@code --worker <CSV|PDF> <configurableExcel> <inputExcel> <pdfFile>}.
+     */
+    private static void runWorker(String[] args) throws Exception {
+        LoadScenario.Conversion conversion = LoadScenario.Conversion.valueOf(args[1]);
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcMillisBefore = getGcMillis();
+        long start = System.nanoTime();
+        if (conversion == LoadScenario.Conversion.CSV) {
+            new Excel2CSV().excel2CSV(args[2], args[3], Paths.get(args[3]).resolveSibling("CSV.zip").toString());
+        } else {
+            Excel2PDF.convertExcelToPDF(args[3], args[4]);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        System.out.println(METRICS + " millis=" + millis + " peakHeapBytes=" + peakHeapBytes + " rssBytes=" + getPeakRssBytes()
+                + " gcMillis=" + (getGcMillis() - gcMillisBefore));
+    }
+
+    private static long getGcMillis() {
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcMillis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return gcMillis;
+    }
+
+    /**
+     * @return the peak resident set size of this JVM from {@code /proc/self/status}, -1 where it is not available
+     */
+    private static long getPeakRssBytes() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim()) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
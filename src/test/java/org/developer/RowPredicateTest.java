@@ -0,0 +1,68 @@
+package org.developer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Row filter conditions are split on their first operator, and column tokens resolve to header names or column letters.
+ */
+class RowPredicateTest {
+    @Test
+    void equalsBeforeAKeywordIsAnEquality() {
+        RowPredicate title = parseOne("Title = Sign in (beta)");
+        assertEquals("Title", title.getColumn());
+        assertTrue(title.test("Sign in (beta)"));
+        assertFalse(title.test("Sign"));
+
+        RowPredicate status = parseOne("Status = NOT EMPTY");
+        assertEquals("Status", status.getColumn());
+        assertTrue(status.test("NOT EMPTY"));
+        assertFalse(status.test("Active"));
+    }
+
+    @Test
+    void keywordBeforeEqualsKeepsTheKeyword() {
+        RowPredicate code = parseOne("Code IN (a=b|c)");
+        assertEquals("Code", code.getColumn());
+        assertTrue(code.test("a=b"));
+        assertTrue(code.test("c"));
+        assertFalse(code.test("a"));
+
+        RowPredicate email = parseOne("Email not empty");
+        assertEquals("Email", email.getColumn());
+        assertTrue(email.test("x"));
+        assertFalse(email.test(""));
+    }
+
+    @Test
+    void conditionsWithoutColumnOrOperatorAreInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> RowPredicate.parse("Status Active"));
+        assertThrows(IllegalArgumentException.class, () -> RowPredicate.parse("= Active"));
+        assertThrows(IllegalArgumentException.class, () -> RowPredicate.parse("Region IN (EU|US"));
+        assertEquals(2, RowPredicate.parse("A = 1; ; B NOT EMPTY").size());
+    }
+
+    @Test
+    void columnLettersMustBeUpperCaseAndWithinTheSheet() {
+        Map<String, Integer> headerColumns = Map.of("name", 1, "id", 0);
+        assertEquals(1, ColumnReference.resolve(" Name ", headerColumns, 3));
+        assertEquals(0, ColumnReference.resolve("ID", headerColumns, 3));
+        assertEquals(2, ColumnReference.resolve("C", headerColumns, 3));
+        assertThrows(IllegalArgumentException.class, () -> ColumnReference.resolve("c", headerColumns, 3));
+        assertThrows(IllegalArgumentException.class, () -> ColumnReference.resolve("D", headerColumns, 3));
+        assertThrows(IllegalArgumentException.class, () -> ColumnReference.resolve("Nme", headerColumns, 3));
+    }
+
+    private static RowPredicate parseOne(String rowFilter) {
+        List<RowPredicate> predicates = RowPredicate.parse(rowFilter);
+        assertEquals(1, predicates.size());
+        return predicates.get(0);
+    }
+}
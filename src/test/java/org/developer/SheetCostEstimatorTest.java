@@ -0,0 +1,123 @@
+package org.developer;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The estimate chooses the engine of each sheet from the heap budget and the share of the sheet in a large workbook.
+ */
+class SheetCostEstimatorTest {
+    // * Declared by the large sheet, more cells than two writer threads take
+    private static final String LARGE_DIMENSION = "A1:Z200000";
+    private static final int LARGE_ROWS = 300_000;
+
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    void workbookWithinTheBudgetIsLoadedInMemory() throws IOException {
+        Path excelFile = tempFolder.resolve("data.xlsx");
+        TestWorkbooks.writeDataXlsx(excelFile);
+
+        WorkbookCostEstimate estimate = new SheetCostEstimator(Long.MAX_VALUE).estimate(excelFile.toString());
+        WorkbookCostEstimate.SheetCost data = estimate.getSheet("Data");
+        assertEquals("A1:G6", data.getDimension());
+        assertEquals(6, data.getRows());
+        assertEquals(7, data.getColumns());
+        assertEquals(ExtractionEngine.IN_MEMORY, data.getEngine());
+        assertEquals(ExtractionEngine.IN_MEMORY, estimate.getSheet("Other").getEngine());
+        assertEquals(1, data.getWriterThreads());
+
+        // * Over the budget every sheet is streamed, the in-memory engine loading the whole workbook
+        WorkbookCostEstimate overBudget = new SheetCostEstimator(estimate.getInMemoryHeapBytes() - 1).estimate(excelFile.toString());
+        assertEquals(ExtractionEngine.STREAMING, overBudget.getSheet("Data").getEngine());
+        assertEquals(ExtractionEngine.STREAMING, overBudget.getSheet("Other").getEngine());
+    }
+
+    @Test
+    void smallSheetOfALargeWorkbookIsStreamed() throws IOException {
+        Path excelFile = tempFolder.resolve("large.xlsx");
+        writeLargeWorkbook(excelFile);
+
+        WorkbookCostEstimate estimate = new SheetCostEstimator(Long.MAX_VALUE).estimate(excelFile.toString());
+        assertTrue(estimate.getUncompressedBytes() > 16L * 1024 * 1024, String.valueOf(estimate.getUncompressedBytes()));
+        // * Within the budget, yet the small sheet alone is cheaper to stream than the whole workbook to load
+        assertEquals(ExtractionEngine.STREAMING, estimate.getSheet("Data").getEngine());
+        WorkbookCostEstimate.SheetCost other = estimate.getSheet("Other");
+        assertEquals(ExtractionEngine.IN_MEMORY, other.getEngine());
+        assertEquals(200_000, other.getRows());
+        assertEquals(26, other.getColumns());
+        // * 5.2 million declared cells take three writer threads of 2.5 million cells, as far as there are processors
+        assertEquals(Math.min(3, Runtime.getRuntime().availableProcessors()), other.getWriterThreads());
+        assertEquals(1, estimate.getSheet("Data").getWriterThreads());
+    }
+
+    @Test
+    void dryRunReportsOneLinePerConfiguredSheet() throws Exception {
+        Path configFile = tempFolder.resolve("config.xlsx");
+        TestWorkbooks.writeConfig(configFile, List.<String[]>of(new String[]{"Data", "out/data.csv", "false", "true"}));
+        Path excelFile = tempFolder.resolve("data.xlsx");
+        TestWorkbooks.writeDataXlsx(excelFile);
+
+        String report = new Excel2CSV(ExtractionEngine.STREAMING).dryRun(configFile.toString(), excelFile.toString());
+
+        assertFalse(report.contains("\r"), report);
+        String[] lines = report.split("\n");
+        assertEquals(3, lines.length, report);
+        assertTrue(lines[0].startsWith("Workbook: " + excelFile), lines[0]);
+        assertTrue(lines[1].startsWith("Sheet: Data dimension: A1:G6 rows: 6 columns: 7"), lines[1]);
+        assertEquals("Engine fixed to STREAMING for every sheet", lines[2]);
+    }
+
+    /**
+     * Writes the {@link TestWorkbooks#fillData} workbook with its {@code Other} sheet replaced by one of more than
+     * 16 MB of XML, declaring {@link #LARGE_DIMENSION}.
+     */
+    private static void writeLargeWorkbook(Path excelFile) throws IOException {
+        ByteArrayOutputStream workbookData = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            TestWorkbooks.fillData(workbook);
+            workbook.write(workbookData);
+        }
+        try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(workbookData.toByteArray()));
+             ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(excelFile))) {
+            for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+                byte[] content = input.readAllBytes();
+                output.putNextEntry(new ZipEntry(entry.getName()));
+                if (entry.getName().equals("xl/worksheets/sheet2.xml")) {
+                    BufferedWriter sheetXml = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+                    sheetXml.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                            + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                            + "<dimension ref=\"" + LARGE_DIMENSION + "\"/><sheetData>");
+                    for (int rowNumber = 1; rowNumber <= LARGE_ROWS; rowNumber++) {
+                        sheetXml.write("<row r=\"" + rowNumber + "\"><c r=\"A" + rowNumber + "\"><v>" + rowNumber
+                                + "</v></c><c r=\"B" + rowNumber + "\"><v>1</v></c></row>");
+                    }
+                    sheetXml.write("</sheetData></worksheet>");
+                    sheetXml.flush();
+                } else {
+                    output.write(content);
+                }
+                output.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.developer;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes CSD-style workbooks of any size with POI's streaming writer, for load tests.
+ * Each sheet starts with a header row followed by data rows without blank rows, and its last column holds
+ * comments. The cells mix repeated text (shared strings), unique text, numbers, dates and text needing CSV
+ * escaping. The content depends only on the sheet, row and column, so a workbook is the same on every run.
+ */
+public class SyntheticWorkbookGenerator {
+    private static final int ROW_WINDOW = 200;
+    private static final String[] STATUSES = {"Active", "Inactive", "Pending", "Closed"};
+    private static final String[] REGIONS = {"EU", "US", "APAC", "LATAM"};
+    private static final String[] CONFIG_HEADER = {"Sheet Name", "CSV Path", "Transpose", "Comment", "Sheet Range", "Delete",
+            "Columns", "Row Filter", "Split", "Delta Key"};
+
+    /**
+     * Writes the input workbook.
+     *
+     * @param excelFile the XLSX file to create
+     * @param sheetCount the number of sheets, named {@code Sheet1}, {@code Sheet2}, ...
+     * @param rowCount the number of data rows of each sheet, after the header row
+     * @param columnCount the number of columns of each sheet, the comment column included
+     * @throws IOException if the file cannot be written
+     */
+    public void generateInput(Path excelFile, int sheetCount, int rowCount, int columnCount) throws IOException {
+        if (sheetCount < 1 || rowCount < 1 || columnCount < 2) {
+            throw new IllegalArgumentException("INVALID WORKBOOK SIZE: " + sheetCount + " SHEETS, " + rowCount + " ROWS, " + columnCount + " COLUMNS");
+        }
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            for (int sheetIndex = 1; sheetIndex <= sheetCount; sheetIndex++) {
+                Sheet sheet = workbook.createSheet("Sheet" + sheetIndex);
+                Row header = sheet.createRow(0);
+                for (int columnIndex = 0; columnIndex < columnCount - 1; columnIndex++) {
+                    header.createCell(columnIndex).setCellValue(headerName(columnIndex));
+                }
+                header.createCell(columnCount - 1).setCellValue("Comment");
+                for (int rowIndex = 1; rowIndex <= rowCount; rowIndex++) {
+                    Row row = sheet.createRow(rowIndex);
+                    for (int columnIndex = 0; columnIndex < columnCount - 1; columnIndex++) {
+                        fillCell(row.createCell(columnIndex), sheetIndex, rowIndex, columnIndex, dateStyle);
+                    }
+                    row.createCell(columnCount - 1).setCellValue("Reviewed, row " + rowIndex + " of \"Sheet" + sheetIndex + "\"");
+                }
+            }
+            try (OutputStream excelStream = Files.newOutputStream(excelFile)) {
+                workbook.write(excelStream);
+            }
+        } finally {
+            // * Removes the temporary files holding the rows flushed out of the window
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Writes a configurable Excel with one row per CSV file.
+     *
+     * @param excelFile the XLSX file to create
+     * @param configRows the values of each row, in the order of the configurable Excel columns starting at column B
+     * @throws IOException if the file cannot be written
+     */
+    public void generateConfig(Path excelFile, List<String[]> configRows) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            Sheet sheet = workbook.createSheet("Config");
+            writeConfigRow(sheet.createRow(0), CONFIG_HEADER);
+            for (int rowIndex = 0; rowIndex < configRows.size(); rowIndex++) {
+                writeConfigRow(sheet.createRow(rowIndex + 1), configRows.get(rowIndex));
+            }
+            try (OutputStream excelStream = Files.newOutputStream(excelFile)) {
+                workbook.write(excelStream);
+            }
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeConfigRow(Row row, String[] values) {
+        // * Column A holds the row number, the configuration starts at column B
+        row.createCell(0).setCellValue(row.getRowNum() == 0 ? "No" : String.valueOf(row.getRowNum()));
+        for (int columnIndex = 0; columnIndex < values.length; columnIndex++) {
+            // * Empty optional values are left out, a whitespace-only cell would fail the validation
+            if (values[columnIndex] != null && !values[columnIndex].isEmpty()) {
+                row.createCell(columnIndex + 1).setCellValue(values[columnIndex]);
+            }
+        }
+    }
+
+    private String headerName(int columnIndex) {
+        switch (columnIndex % 6) {
+            case 0: return columnIndex == 0 ? "Id" : "Code " + columnIndex;
+            case 1: return "Name " + columnIndex;
+            case 2: return columnIndex == 2 ? "Status" : "State " + columnIndex;
+            case 3: return columnIndex == 3 ? "Region" : "Area " + columnIndex;
+            case 4: return "Amount " + columnIndex;
+            default: return "Date " + columnIndex;
+        }
+    }
+
+    private void fillCell(Cell cell, int sheetIndex, int rowIndex, int columnIndex, CellStyle dateStyle) {
+        switch (columnIndex % 6) {
+            case 0:
+                cell.setCellValue("S" + sheetIndex + "-" + rowIndex + "-" + columnIndex);
+                break;
+            case 1:
+                cell.setCellValue("Customer " + (rowIndex * 31 + columnIndex) % 50_000);
+                break;
+            case 2:
+                cell.setCellValue(STATUSES[(rowIndex + columnIndex) % STATUSES.length]);
+                break;
+            case 3:
+                cell.setCellValue(REGIONS[(rowIndex / 7 + columnIndex) % REGIONS.length]);
+                break;
+            case 4:
+                cell.setCellValue((rowIndex * 37L + columnIndex) % 1_000_000 / 100.0);
+                break;
+            default:
+                cell.setCellValue(LocalDate.of(2020, 1, 1).plusDays((rowIndex + columnIndex) % 2_000));
+                cell.setCellStyle(dateStyle);
+                break;
+        }
+    }
+}
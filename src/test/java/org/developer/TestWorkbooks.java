@@ -0,0 +1,196 @@
+package org.developer;
+
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactory;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.formula.ptg.ExpPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Small workbooks written by the tests.
+ */
+final class TestWorkbooks {
+    static final String[] DATA_HEADER = {"Id", "Name", "Amount", "Date", "Flag", "Total", "Comment"};
+
+    private TestWorkbooks() {
+    }
+
+    /**
+     * Fills a {@code Data} sheet with text, repeated text, numbers, dates, booleans, a blank cell and
+     * {@code Total = Amount * 2} formulas on rows 2 to 6, followed by an {@code Other} sheet.
+     */
+    static void fillData(Workbook workbook) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        Sheet sheet = workbook.createSheet("Data");
+        Row header = sheet.createRow(0);
+        for (int columnIndex = 0; columnIndex < DATA_HEADER.length; columnIndex++) {
+            header.createCell(columnIndex).setCellValue(DATA_HEADER[columnIndex]);
+        }
+        for (int rowIndex = 1; rowIndex <= 5; rowIndex++) {
+            Row row = sheet.createRow(rowIndex);
+            row.createCell(0).setCellValue("R" + rowIndex);
+            if (rowIndex != 3) {
+                row.createCell(1).setCellValue(rowIndex % 2 == 0 ? "Alice" : "Bob, \"B\"");
+            }
+            row.createCell(2).setCellValue(rowIndex * 10.5);
+            row.createCell(3).setCellValue(LocalDate.of(2024, 1, rowIndex));
+            row.getCell(3).setCellStyle(dateStyle);
+            row.createCell(4).setCellValue(rowIndex % 2 == 0);
+            row.createCell(5).setCellFormula("C" + (rowIndex + 1) + "*2");
+            row.createCell(6).setCellValue("Note " + rowIndex);
+        }
+        workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("Other");
+    }
+
+    /**
+     * Writes the {@link #fillData} workbook as XLSX, with the formulas of {@code F2:F6} stored as one shared formula.
+     */
+    static void writeDataXlsx(Path excelFile) throws IOException {
+        ByteArrayOutputStream workbookData = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fillData(workbook);
+            workbook.write(workbookData);
+        }
+        try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(workbookData.toByteArray()));
+             ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(excelFile))) {
+            for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+                byte[] content = input.readAllBytes();
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    String sheetXml = new String(content, StandardCharsets.UTF_8)
+                            .replace("<f>C2*2</f>", "<f t=\"shared\" ref=\"F2:F6\" si=\"0\">C2*2</f>");
+                    for (int rowNumber = 3; rowNumber <= 6; rowNumber++) {
+                        sheetXml = sheetXml.replace("<f>C" + rowNumber + "*2</f>", "<f t=\"shared\" si=\"0\"/>");
+                    }
+                    content = sheetXml.getBytes(StandardCharsets.UTF_8);
+                }
+                output.putNextEntry(new ZipEntry(entry.getName()));
+                output.write(content);
+                output.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Writes the {@link #fillData} workbook as XLS, with the formulas of {@code F2:F6} stored as one shared formula:
+     * each FORMULA record only points to F2, and a SHRFMLA record after F2 holds {@code C2*2} with relative references.
+     */
+    static void writeDataXls(Path excelFile) throws IOException {
+        ByteArrayOutputStream workbookData = new ByteArrayOutputStream();
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            fillData(workbook);
+            workbook.write(workbookData);
+        }
+        List<Record> records;
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(new ByteArrayInputStream(workbookData.toByteArray()));
+             InputStream workbookStream = fileSystem.createDocumentInputStream("Workbook")) {
+            records = RecordFactory.createRecords(workbookStream);
+        }
+        List<Record> sharedRecords = new ArrayList<>();
+        List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        for (Record record : records) {
+            sharedRecords.add(record);
+            if (record instanceof BoundSheetRecord) {
+                boundSheets.add((BoundSheetRecord) record);
+            }
+            if (record instanceof FormulaRecord && ((FormulaRecord) record).getColumn() == 5) {
+                FormulaRecord formulaRecord = (FormulaRecord) record;
+                formulaRecord.setParsedExpression(new Ptg[]{new ExpPtg(1, 5)});
+                formulaRecord.setSharedFormula(true);
+                if (formulaRecord.getRow() == 1) {
+                    sharedRecords.add(createSharedFormulaRecord());
+                }
+            }
+        }
+        // * The sheets moved, their BOF positions are written again
+        int offset = 0;
+        int sheetIndex = 0;
+        for (Record record : sharedRecords) {
+            if (record instanceof BOFRecord && ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                boundSheets.get(sheetIndex++).setPositionOfBof(offset);
+            }
+            offset += record.getRecordSize();
+        }
+        ByteArrayOutputStream recordData = new ByteArrayOutputStream();
+        for (Record record : sharedRecords) {
+            recordData.write(record.serialize());
+        }
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(); OutputStream output = Files.newOutputStream(excelFile)) {
+            fileSystem.createDocument(new ByteArrayInputStream(recordData.toByteArray()), "Workbook");
+            fileSystem.writeFilesystem(output);
+        }
+    }
+
+    /**
+     * @return the SHRFMLA record of F2:F6 holding {@code C2*2}, the reference being relative to each cell
+     */
+    private static Record createSharedFormulaRecord() {
+        byte[] record = {
+                (byte) 0xBC, 0x04, 19, 0,
+                // * Rows 1 to 5, column 5 to 5, reserved, used by 5 cells
+                1, 0, 5, 0, 5, 5, 0, 5,
+                // * 9 bytes of tokens: tRefN same row, 3 columns left; tInt 2; tMul
+                9, 0, 0x4C, 0, 0, (byte) 0xFD, (byte) 0xC0, 0x1E, 2, 0, 0x05
+        };
+        return RecordFactory.createRecords(new ByteArrayInputStream(record)).get(0);
+    }
+
+    /**
+     * Writes a workbook to a file.
+     */
+    static void write(Workbook workbook, Path excelFile) throws IOException {
+        try (workbook; OutputStream output = Files.newOutputStream(excelFile)) {
+            workbook.write(output);
+        }
+    }
+
+    /**
+     * Writes a configurable Excel whose rows start at column B, leaving out the cells of null values.
+     */
+    static void writeConfig(Path excelFile, List<String[]> configRows) throws IOException {
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Config");
+        String[] header = {"Sheet Name", "CSV Path", "Transpose", "Comment", "Sheet Range", "Delete", "Columns", "Row Filter", "Split",
+                "Delta Key"};
+        Row headerRow = sheet.createRow(0);
+        headerRow.createCell(0).setCellValue("No");
+        for (int columnIndex = 0; columnIndex < header.length; columnIndex++) {
+            headerRow.createCell(columnIndex + 1).setCellValue(header[columnIndex]);
+        }
+        for (int rowIndex = 0; rowIndex < configRows.size(); rowIndex++) {
+            Row row = sheet.createRow(rowIndex + 1);
+            row.createCell(0).setCellValue(String.valueOf(rowIndex + 1));
+            String[] values = configRows.get(rowIndex);
+            for (int columnIndex = 0; columnIndex < values.length; columnIndex++) {
+                if (values[columnIndex] != null) {
+                    row.createCell(columnIndex + 1).setCellValue(values[columnIndex]);
+                }
+            }
+        }
+        write(workbook, excelFile);
+    }
+}